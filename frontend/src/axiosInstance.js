@@ -9,12 +9,44 @@ const axiosInstance = axios.create({
   withCredentials: true,
 });
 
+// Last body and ETag per GET URL. The server answers 304 when its data version is unchanged, which
+// skips reading the data and sending it again; the page still receives the full body from here.
+const MAX_CACHED_RESPONSES = 50;
+const responseCache = new Map();
+
+axiosInstance.interceptors.request.use(config => {
+  if ((config.method || 'get').toLowerCase() !== 'get') return config;
+  const cached = responseCache.get(axiosInstance.getUri(config));
+  if (cached) {
+    config.headers['If-None-Match'] = cached.etag;
+    config.validateStatus = status => (status >= 200 && status < 300) || status === 304;
+  }
+  return config;
+});
+
 axiosInstance.interceptors.response.use(
-  response => response,
+  response => {
+    if ((response.config.method || 'get').toLowerCase() !== 'get') return response;
+    const key = axiosInstance.getUri(response.config);
+    if (response.status === 304) {
+      const cached = responseCache.get(key);
+      return { ...response, status: 200, data: cached ? cached.data : response.data };
+    }
+    const etag = response.headers.etag;
+    if (etag) {
+      responseCache.delete(key);
+      responseCache.set(key, { etag, data: response.data });
+      if (responseCache.size > MAX_CACHED_RESPONSES) {
+        responseCache.delete(responseCache.keys().next().value);
+      }
+    }
+    return response;
+  },
   error => {
     if (error.response && error.response.status === 403) {
       localStorage.clear();
       sessionStorage.clear();
+      responseCache.clear();
       if (navigate) navigate('/login');
     }
     return Promise.reject(error);
@@ -88,6 +88,26 @@ const FuelEntries = () => {
     setSubmitting(false);
   };
 
+  const handleImport = async (e) => {
+    const file = e.target.files[0];
+    e.target.value = '';
+    if (!file) return;
+    const data = new FormData();
+    data.append('file', file);
+    try {
+      const res = await axiosInstance.post(`/api/fuel-entries/import?vehicleId=${selectedVehicle}`, data);
+      const { importedCount, rejectedCount, errors } = res.data;
+      if (rejectedCount > 0) {
+        setError(`Imported ${importedCount} entries, skipped ${rejectedCount}: `
+          + errors.slice(0, 5).map(err => `line ${err.line}: ${err.message}`).join('; '));
+      }
+      const entriesRes = await axiosInstance.get(`/api/fuel-entries/vehicle/${selectedVehicle}?units=${unitSystem}`);
+      setFuelEntries(entriesRes.data);
+    } catch (err) {
+      setError(err);
+    }
+  };
+
   const handleDeleteEntry = async (id) => {
     if (!window.confirm('Delete this entry?')) return;
     try {
@@ -178,6 +198,15 @@ const FuelEntries = () => {
       {selectedVehicle && (
         <div style={{marginTop: '2rem'}}>
           <h2>Entries</h2>
+          {/* Plain links, so the browser streams the download to disk instead of holding it in memory */}
+          <div style={{marginBottom: '1rem'}}>
+            Export:{' '}
+            <a href={`${axiosInstance.defaults.baseURL}/api/fuel-entries/export?vehicleId=${selectedVehicle}&format=csv&units=${unitSystem}`}>CSV</a>
+            {' | '}
+            <a href={`${axiosInstance.defaults.baseURL}/api/fuel-entries/export?vehicleId=${selectedVehicle}&format=ndjson&units=${unitSystem}`}>NDJSON</a>
+            {' | '}
+            <label>Import CSV: <input type="file" accept=".csv,text/csv" onChange={handleImport} /></label>
+          </div>
           {fuelEntries.length > 0 ? (
             <table className="fuel-entries-table">
               <thead>
@@ -30,14 +30,13 @@ export default function Home() {
       : new Date(now.getTime() - periodDays * 24 * 60 * 60 * 1000);
     params.startDate = periodStart.toISOString().slice(0, 10);
     params.endDate = now.toISOString().slice(0, 10);
+    // The charts are 400px wide, so a couple of hundred points per line is all they can show
+    params.maxPoints = 200;
     params.units = unitSystem;
-    Promise.all([
-      axiosInstance.get('/api/vehicles').then(res => res.data),
-      axiosInstance.get('/api/fuel-entries/dashboard', { params }).then(res => res.data)
-    ])
-      .then(([vehiclesData, dashboardData]) => {
-        setVehicles(vehiclesData);
-        setDashboard(dashboardData);
+    axiosInstance.get('/api/statistics/bundle', { params })
+      .then(res => {
+        setVehicles(res.data.vehicles);
+        setDashboard(res.data.dashboard);
         setLoading(false);
       })
       .catch(err => {
@@ -12,22 +12,7 @@ const Statistics = () => {
   const [vehicles, setVehicles] = useState([]);
 
   useEffect(() => {
-    // Fetch perFill for selected vehicle/period
-    let params = {};
-    if (selectedVehicle !== 'all') params.vehicleId = selectedVehicle;
-    const now = new Date();
-    let periodDays = selectedPeriod === 'YTD' ? 365 : parseInt(selectedPeriod, 10);
-    let periodStart = selectedPeriod === 'YTD'
-      ? new Date(now.getFullYear(), 0, 1)
-      : new Date(now.getTime() - periodDays * 24 * 60 * 60 * 1000);
-    params.startDate = periodStart.toISOString().slice(0, 10);
-    params.endDate = now.toISOString().slice(0, 10);
-    axiosInstance.get('/api/fuel-entries/per-fill', { params })
-      .then(res => setPerFill(Array.isArray(res.data) ? res.data : []))
-      .catch(() => setPerFill([]));
-  }, [selectedVehicle, selectedPeriod]);
-
-  useEffect(() => {
+    // Per-fill consumption, the brand/grade comparison and the vehicle list come from one bundle request
     setLoadingComparison(true);
     let params = {};
     if (selectedVehicle !== 'all') params.vehicleId = selectedVehicle;
@@ -38,18 +23,22 @@ const Statistics = () => {
       : new Date(now.getTime() - periodDays * 24 * 60 * 60 * 1000);
     params.startDate = periodStart.toISOString().slice(0, 10);
     params.endDate = now.toISOString().slice(0, 10);
-    axiosInstance.get('/api/fuel-entries/brand-grade-comparison', { params })
-      .then(res => setComparison(Array.isArray(res.data) ? res.data : []))
-      .catch(() => setErrorComparison('Failed to load brand/grade comparison'))
+    // The chart is 600px wide; the server thins longer series to this many points
+    params.maxPoints = 300;
+    axiosInstance.get('/api/statistics/bundle', { params })
+      .then(res => {
+        setPerFill(Array.isArray(res.data.perFill) ? res.data.perFill : []);
+        setComparison(Array.isArray(res.data.brandGradeComparison) ? res.data.brandGradeComparison : []);
+        setVehicles(Array.isArray(res.data.vehicles) ? res.data.vehicles : []);
+        setErrorComparison(null);
+      })
+      .catch(() => {
+        setPerFill([]);
+        setErrorComparison('Failed to load brand/grade comparison');
+      })
       .finally(() => setLoadingComparison(false));
   }, [selectedVehicle, selectedPeriod]);
 
-  useEffect(() => {
-    axiosInstance.get('/api/vehicles')
-      .then(res => setVehicles(Array.isArray(res.data) ? res.data : []))
-      .catch(() => setVehicles([]));
-  }, []);
-
   return (
     <div style={{ padding: "2rem" }}>
       <h2>Statistics & Graphs</h2>
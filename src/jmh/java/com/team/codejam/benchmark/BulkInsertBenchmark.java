@@ -0,0 +1,141 @@
+package com.team.codejam.benchmark;
+
+import com.team.codejam.entity.FuelEntry;
+import com.team.codejam.entity.User;
+import com.team.codejam.entity.Vehicle;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fill-ups persisted through Hibernate, in rows per second. "row" sends one INSERT round trip per fill,
+ * as every insert did under identity ids; "batched" uses the application's JDBC batching and, on
+ * PostgreSQL, reWriteBatchedInserts. The postgres runs need a local database, by default
+ * jdbc:postgresql://localhost:5432/codejam as postgres/postgres (-Dcodejam.bench.postgres-url, -user,
+ * -password); they work in a schema of their own that is dropped at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkInsertBenchmark.ROWS)
+public class BulkInsertBenchmark {
+    static final int ROWS = 1_000;
+    private static final String SCHEMA = "bulk_insert_benchmark";
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 1);
+
+    @Param({"h2", "postgres"})
+    public String database;
+
+    @Param({"row", "batched"})
+    public String writes;
+
+    private SessionFactory sessionFactory;
+    private Long userId;
+    private Long vehicleId;
+    private int odometer;
+
+    @Setup
+    public void setUp() throws Exception {
+        boolean batched = "batched".equals(writes);
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Vehicle.class)
+                .addAnnotatedClass(FuelEntry.class)
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", batched ? "50" : "0")
+                .setProperty("hibernate.order_inserts", Boolean.toString(batched));
+        if ("postgres".equals(database)) {
+            postgres("create schema if not exists " + SCHEMA);
+            // The schema goes on the search path, so the id defaults find their sequences
+            String url = postgresUrl();
+            configuration.setProperty("hibernate.connection.url", url + (url.contains("?") ? "&" : "?")
+                            + "currentSchema=" + SCHEMA + "&reWriteBatchedInserts=" + batched)
+                    .setProperty("hibernate.connection.username", postgresUser())
+                    .setProperty("hibernate.connection.password", postgresPassword());
+        } else {
+            configuration.setProperty("hibernate.connection.url", "jdbc:h2:mem:bulk-insert;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+                    .setProperty("hibernate.connection.username", "sa")
+                    .setProperty("hibernate.connection.password", "");
+        }
+        sessionFactory = configuration.buildSessionFactory();
+        sessionFactory.inTransaction(session -> {
+            User user = new User();
+            user.setEmail("bulk-insert@example.com");
+            user.setPasswordHash("hash");
+            session.persist(user);
+            Vehicle vehicle = new Vehicle();
+            vehicle.setName("Car");
+            vehicle.setUser(user);
+            session.persist(vehicle);
+            session.flush();
+            userId = user.getId();
+            vehicleId = vehicle.getId();
+        });
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        sessionFactory.close();
+        if ("postgres".equals(database)) postgres("drop schema if exists " + SCHEMA + " cascade");
+    }
+
+    // One transaction of ROWS fills, flushed in chunks so the persistence context stays small
+    @Benchmark
+    public void insertFills() {
+        sessionFactory.inTransaction(session -> {
+            User user = session.getReference(User.class, userId);
+            Vehicle vehicle = session.getReference(Vehicle.class, vehicleId);
+            for (int i = 0; i < ROWS; i++) {
+                FuelEntry entry = new FuelEntry();
+                entry.setUser(user);
+                entry.setVehicle(vehicle);
+                entry.setDate(DAY);
+                entry.setOdometer(++odometer);
+                entry.setStationName("Station");
+                entry.setLiters(40.0);
+                entry.setTotalAmount(70.0);
+                session.persist(entry);
+                if ((i + 1) % 500 == 0) {
+                    session.flush();
+                    session.clear();
+                    user = session.getReference(User.class, userId);
+                    vehicle = session.getReference(Vehicle.class, vehicleId);
+                }
+            }
+        });
+    }
+
+    private static void postgres(String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection(postgresUrl(), postgresUser(), postgresPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String postgresUrl() {
+        return System.getProperty("codejam.bench.postgres-url", "jdbc:postgresql://localhost:5432/codejam");
+    }
+
+    private static String postgresUser() {
+        return System.getProperty("codejam.bench.postgres-user", "postgres");
+    }
+
+    private static String postgresPassword() {
+        return System.getProperty("codejam.bench.postgres-password", "postgres");
+    }
+}
@@ -0,0 +1,49 @@
+package com.team.codejam.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.team.codejam.dto.DashboardResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard built and encoded the way each response format sends it: date/value points as JSON,
+ * columnar series as JSON, and columnar series as CBOR. The payload size of each is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChartEncodingBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"points", "columnar", "cbor"})
+    public String format;
+
+    private ServiceFixture fixture;
+    private ObjectMapper mapper;
+    private boolean columnar;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new ServiceFixture(SyntheticHistory.points(size), true);
+        mapper = "cbor".equals(format) ? new CBORMapper() : new ObjectMapper();
+        columnar = !"points".equals(format);
+        System.out.println("payload bytes (" + format + ", " + size + "): " + dashboard().length);
+    }
+
+    @Benchmark
+    public byte[] dashboard() throws Exception {
+        DashboardResponseDto dashboard = fixture.fuelEntryService.getDashboardStats(SyntheticHistory.USER_ID,
+                SyntheticHistory.VEHICLE_ID, null, null, false, columnar, null);
+        return mapper.writeValueAsBytes(dashboard);
+    }
+}
@@ -0,0 +1,54 @@
+package com.team.codejam.benchmark;
+
+import com.team.codejam.dto.BrandGradeComparisonDto;
+import com.team.codejam.dto.DashboardResponseDto;
+import com.team.codejam.dto.FuelEntryPointDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FuelEntryService dashboard and brand/grade math over a full history, fed either by repository
+ * rows or by the in-memory series snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DashboardBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"repository", "series"})
+    public String source;
+
+    private ServiceFixture fixture;
+
+    @Setup
+    public void setUp() {
+        List<FuelEntryPointDto> points = SyntheticHistory.points(size);
+        fixture = new ServiceFixture(points, "series".equals(source));
+    }
+
+    @Benchmark
+    public DashboardResponseDto dashboard() {
+        return fixture.fuelEntryService.getDashboardStats(SyntheticHistory.USER_ID, SyntheticHistory.VEHICLE_ID, null, null, false);
+    }
+
+    @Benchmark
+    public DashboardResponseDto dashboardImperial() {
+        return fixture.fuelEntryService.getDashboardStats(SyntheticHistory.USER_ID, SyntheticHistory.VEHICLE_ID, null, null, true);
+    }
+
+    @Benchmark
+    public List<BrandGradeComparisonDto> brandGradeComparison() {
+        return fixture.fuelEntryService.getBrandGradeComparison(SyntheticHistory.USER_ID, SyntheticHistory.VEHICLE_ID, null, null);
+    }
+}
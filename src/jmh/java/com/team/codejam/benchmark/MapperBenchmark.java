@@ -0,0 +1,48 @@
+package com.team.codejam.benchmark;
+
+import com.team.codejam.dto.FuelEntryPerFillView;
+import com.team.codejam.mapper.FuelEntryMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FuelEntryMapper.toResponseDto over a whole history of per-fill rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MapperBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private List<FuelEntryPerFillView> views;
+
+    @Setup
+    public void setUp() {
+        views = SyntheticHistory.perFillViews(SyntheticHistory.points(size));
+    }
+
+    @Benchmark
+    public void toResponseDtoMetric(Blackhole blackhole) {
+        for (FuelEntryPerFillView view : views) {
+            blackhole.consume(FuelEntryMapper.toResponseDto(view, false));
+        }
+    }
+
+    @Benchmark
+    public void toResponseDtoImperial(Blackhole blackhole) {
+        for (FuelEntryPerFillView view : views) {
+            blackhole.consume(FuelEntryMapper.toResponseDto(view, true));
+        }
+    }
+}
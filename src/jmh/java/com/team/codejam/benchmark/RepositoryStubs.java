@@ -0,0 +1,33 @@
+package com.team.codejam.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Repository interfaces backed by in-memory answers, so services run without a database and
+ * benchmarks measure only the Java side. Unstubbed methods fail loudly.
+ */
+final class RepositoryStubs {
+    private RepositoryStubs() {
+    }
+
+    static <T> T stub(Class<T> repositoryType, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (self, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return self == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(self);
+                        case "toString":
+                            return repositoryType.getSimpleName() + " stub";
+                        default:
+                            Function<Object[], Object> answer = answers.get(method.getName());
+                            if (answer == null) throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+                            return answer.apply(args);
+                    }
+                });
+        return repositoryType.cast(proxy);
+    }
+}
@@ -0,0 +1,68 @@
+package com.team.codejam.benchmark;
+
+import com.team.codejam.cache.StatsResultCache;
+import com.team.codejam.cache.VehicleSeriesStore;
+import com.team.codejam.dto.FuelEntryPerFillView;
+import com.team.codejam.dto.FuelEntryPointDto;
+import com.team.codejam.dto.VehicleVersionDto;
+import com.team.codejam.repository.FuelEntryRepository;
+import com.team.codejam.repository.UserRepository;
+import com.team.codejam.repository.VehicleRepository;
+import com.team.codejam.service.DataVersionService;
+import com.team.codejam.service.FuelEntryService;
+import com.team.codejam.service.StageTimers;
+import com.team.codejam.service.StatisticsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Services wired over stub repositories holding one synthetic history. The result cache always
+ * misses (no data version is found) so every call recomputes.
+ */
+final class ServiceFixture {
+    final FuelEntryService fuelEntryService;
+    final StatisticsService statisticsService;
+
+    ServiceFixture(List<FuelEntryPointDto> points, boolean seriesCacheEnabled) {
+        List<FuelEntryPerFillView> views = SyntheticHistory.perFillViews(points);
+        FuelEntryRepository fuelEntryRepository = RepositoryStubs.stub(FuelEntryRepository.class, Map.of(
+                "findChartPoints", args -> points,
+                "findChartPointsByVehicle", args -> points,
+                "findSeriesPoints", args -> points,
+                "findPerFill", args -> new PageImpl<>(views)));
+        VehicleVersionDto version = new VehicleVersionDto(SyntheticHistory.VEHICLE_ID, SyntheticHistory.USER_ID, 0L);
+        VehicleRepository storeVehicles = RepositoryStubs.stub(VehicleRepository.class, Map.of(
+                "findVersion", args -> Optional.of(version),
+                "findVersionsByUserId", args -> List.of(version)));
+        VehicleRepository unversionedVehicles = RepositoryStubs.stub(VehicleRepository.class, Map.of(
+                "findVersion", args -> Optional.empty()));
+        UserRepository unversionedUsers = RepositoryStubs.stub(UserRepository.class, Map.of(
+                "findDataVersion", args -> null));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DataVersionService dataVersionService = new DataVersionService(unversionedVehicles, unversionedUsers);
+        StatsResultCache statsResultCache = new StatsResultCache(dataVersionService, meterRegistry, 0, Duration.ofMinutes(1));
+        StageTimers stageTimers = new StageTimers(meterRegistry);
+        VehicleSeriesStore seriesStore = new VehicleSeriesStore(fuelEntryRepository, storeVehicles, meterRegistry,
+                Long.MAX_VALUE, Duration.ofMinutes(1));
+        setEnabled(seriesStore, seriesCacheEnabled);
+        fuelEntryService = new FuelEntryService(fuelEntryRepository, null, null, null, null, seriesStore, dataVersionService, statsResultCache, stageTimers, Runnable::run);
+        statisticsService = new StatisticsService(fuelEntryRepository, null, seriesStore, statsResultCache, stageTimers);
+    }
+
+    // The flag is normally injected from codejam.series-cache.enabled
+    private static void setEnabled(VehicleSeriesStore store, boolean enabled) {
+        try {
+            var field = VehicleSeriesStore.class.getDeclaredField("enabled");
+            field.setAccessible(true);
+            field.setBoolean(store, enabled);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.team.codejam.benchmark;
+
+import com.team.codejam.entity.FuelEntry;
+import com.team.codejam.entity.User;
+import com.team.codejam.entity.Vehicle;
+import com.team.codejam.specification.FuelEntryCursor;
+import com.team.codejam.specification.FuelEntrySpecification;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criteria predicate build for FuelEntrySpecification, as done for every history request.
+ * Hibernate is bootstrapped without a database connection; only the criteria API is exercised.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpecificationBenchmark {
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Vehicle.class)
+                .addAnnotatedClass(FuelEntry.class)
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate userOnly() {
+        return build(FuelEntrySpecification.filter(null, null, null, null, null, null, 1L));
+    }
+
+    @Benchmark
+    public Predicate allFilters() {
+        return build(FuelEntrySpecification.filter(1L, "Shell", "95", "Center", FROM, TO, 1L));
+    }
+
+    @Benchmark
+    public Predicate allFiltersWithCursor() {
+        return build(FuelEntrySpecification.filter(1L, "Shell", "95", "Center", FROM, TO, 1L)
+                .and(FuelEntrySpecification.after(new FuelEntryCursor(FROM, 100L))));
+    }
+
+    private Predicate build(Specification<FuelEntry> specification) {
+        CriteriaQuery<FuelEntry> query = criteriaBuilder.createQuery(FuelEntry.class);
+        Root<FuelEntry> root = query.from(FuelEntry.class);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+}
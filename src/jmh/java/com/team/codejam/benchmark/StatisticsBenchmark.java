@@ -0,0 +1,55 @@
+package com.team.codejam.benchmark;
+
+import com.team.codejam.dto.FuelEntryPointDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StatisticsService aggregates (calculateAggregates over series windows) and the per-brand
+ * group statistics over per-fill rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StatisticsBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private ServiceFixture fixture;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void setUp() {
+        List<FuelEntryPointDto> points = SyntheticHistory.points(size);
+        fixture = new ServiceFixture(points, true);
+        to = SyntheticHistory.lastDate(points);
+        from = to.minusDays(90);
+    }
+
+    @Benchmark
+    public Map<String, Object> aggregatesLast90Days() {
+        return fixture.statisticsService.getAggregates(SyntheticHistory.USER_ID, SyntheticHistory.VEHICLE_ID, from, to);
+    }
+
+    @Benchmark
+    public Map<String, Object> aggregatesAllTime() {
+        return fixture.statisticsService.getAggregates(SyntheticHistory.USER_ID, SyntheticHistory.VEHICLE_ID, SyntheticHistory.START, to);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> brandGradeStats() {
+        return fixture.statisticsService.getBrandGradeStats(SyntheticHistory.USER_ID, SyntheticHistory.VEHICLE_ID);
+    }
+}
@@ -0,0 +1,104 @@
+package com.team.codejam.benchmark;
+
+import com.team.codejam.dto.FuelEntryPerFillView;
+import com.team.codejam.dto.FuelEntryPointDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic fill-up histories for benchmarks: one vehicle, roughly one fill every four days.
+ */
+final class SyntheticHistory {
+    static final long USER_ID = 1L;
+    static final long VEHICLE_ID = 1L;
+    static final LocalDate START = LocalDate.of(1990, 1, 1);
+
+    private static final String[] BRANDS = {"Shell", "BP", "Aral", "Esso", "Total"};
+    private static final String[] GRADES = {"95", "98", "Diesel"};
+    private static final String[] STATIONS = {"Center", "Highway", "Airport", "Harbour", "North", "South", "Mall"};
+
+    private SyntheticHistory() {
+    }
+
+    static List<FuelEntryPointDto> points(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<FuelEntryPointDto> points = new ArrayList<>(size);
+        LocalDate date = START;
+        int odometer = 1000;
+        for (int i = 0; i < size; i++) {
+            // Several fills per day at the largest sizes keep the date range inside LocalDate limits
+            if (random.nextInt(4) == 0) date = date.plusDays(1 + random.nextInt(6));
+            odometer += 200 + random.nextInt(500);
+            double liters = 20 + random.nextDouble(40);
+            points.add(new FuelEntryPointDto(VEHICLE_ID, date, odometer, liters, liters * (1.5 + random.nextDouble(0.5)),
+                    BRANDS[random.nextInt(BRANDS.length)], GRADES[random.nextInt(GRADES.length)],
+                    STATIONS[random.nextInt(STATIONS.length)]));
+        }
+        return points;
+    }
+
+    static List<FuelEntryPerFillView> perFillViews(List<FuelEntryPointDto> points) {
+        List<FuelEntryPerFillView> views = new ArrayList<>(points.size());
+        Integer prevOdometer = null;
+        long id = 1;
+        for (FuelEntryPointDto point : points) {
+            Integer distance = prevOdometer != null ? point.getOdometer() - prevOdometer : null;
+            views.add(new PerFillRow(id++, point, distance));
+            prevOdometer = point.getOdometer();
+        }
+        return views;
+    }
+
+    static LocalDate lastDate(List<FuelEntryPointDto> points) {
+        return points.get(points.size() - 1).getDate();
+    }
+
+    private record PerFillRow(Long id, FuelEntryPointDto point, Integer distance) implements FuelEntryPerFillView {
+        public Long getId() {
+            return id;
+        }
+
+        public Long getVehicleId() {
+            return point.getVehicleId();
+        }
+
+        public LocalDate getDate() {
+            return point.getDate();
+        }
+
+        public Integer getOdometer() {
+            return point.getOdometer();
+        }
+
+        public String getStationName() {
+            return point.getStationName();
+        }
+
+        public String getFuelBrand() {
+            return point.getFuelBrand();
+        }
+
+        public String getFuelGrade() {
+            return point.getFuelGrade();
+        }
+
+        public Double getLiters() {
+            return point.getLiters();
+        }
+
+        public Double getTotalAmount() {
+            return point.getTotalAmount();
+        }
+
+        public String getNotes() {
+            return null;
+        }
+
+        public Integer getDistanceSinceLast() {
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.team.codejam.loadtest;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Endpoints in the traffic mix. Each builds a request path (and body for writes) for one synthetic user;
+ * date windows are drawn from the two years before the seed end date, where the seeded history is.
+ */
+public enum Endpoint {
+    ADD_FILL("add-fill", 10) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return "/api/fuel-entries";
+        }
+
+        @Override
+        String body(VirtualUser user, long vehicleId, SplittableRandom random) {
+            double liters = 20 + random.nextInt(3000) / 100.0;
+            return String.format(Locale.ROOT, """
+                    {"vehicleId":%d,"date":"%s","odometer":%d,"stationName":"Load Test %d","fuelBrand":"Shell","fuelGrade":"95",\
+                    "liters":%.2f,"totalAmount":%.2f}""", vehicleId, LocalDate.now(), user.nextOdometer(vehicleId),
+                    random.nextInt(5), liters, liters * 1.75);
+        }
+    },
+    HISTORY("history", 20) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return random.nextBoolean()
+                    ? "/api/fuel-entries/history?limit=25"
+                    : "/api/fuel-entries/history?limit=25&vehicleId=" + vehicleId + window(random, "startDate", "endDate");
+        }
+    },
+    DASHBOARD("dashboard", 20) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return random.nextBoolean()
+                    ? "/api/fuel-entries/dashboard?" + window(random, "startDate", "endDate").substring(1)
+                    : "/api/fuel-entries/dashboard?vehicleId=" + vehicleId + window(random, "startDate", "endDate");
+        }
+    },
+    BRAND_GRADE_COMPARISON("brand-grade-comparison", 10) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return "/api/fuel-entries/brand-grade-comparison?vehicleId=" + vehicleId + window(random, "startDate", "endDate");
+        }
+    },
+    STATISTICS_AGGREGATES("statistics-aggregates", 10) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return "/api/statistics/aggregates?vehicleId=" + vehicleId + window(random, "from", "to");
+        }
+    },
+    STATISTICS_USER_AGGREGATES("statistics-user-aggregates", 10) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return "/api/statistics/user-aggregates?" + window(random, "from", "to").substring(1);
+        }
+    },
+    STATISTICS_MONTHLY("statistics-monthly", 10) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return "/api/statistics/monthly?vehicleId=" + vehicleId;
+        }
+    },
+    STATISTICS_COMPARE("statistics-compare", 10) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return "/api/statistics/compare?vehicleId=" + vehicleId + window(random, "from", "to");
+        }
+    },
+    STATISTICS_BUNDLE("statistics-bundle", 10) {
+        @Override
+        String path(VirtualUser user, long vehicleId, SplittableRandom random) {
+            return random.nextBoolean()
+                    ? "/api/statistics/bundle?" + window(random, "startDate", "endDate").substring(1)
+                    : "/api/statistics/bundle?vehicleId=" + vehicleId + window(random, "startDate", "endDate");
+        }
+    };
+
+    // Last date of the seeded history, passed to the seed job as codejam.seed.end-date
+    static final LocalDate SEED_END_DATE = LocalDate.of(2024, 12, 31);
+
+    private final String name;
+    private final int defaultWeight;
+
+    Endpoint(String name, int defaultWeight) {
+        this.name = name;
+        this.defaultWeight = defaultWeight;
+    }
+
+    abstract String path(VirtualUser user, long vehicleId, SplittableRandom random);
+
+    // Request body for writes, null for reads
+    String body(VirtualUser user, long vehicleId, SplittableRandom random) {
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    public static Endpoint byName(String name) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.name.equals(name)) return endpoint;
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + name);
+    }
+
+    // "&from=...&to=..." for a 1 to 12 month window
+    private static String window(SplittableRandom random, String fromParam, String toParam) {
+        LocalDate to = SEED_END_DATE.minusDays(random.nextInt(730));
+        LocalDate from = to.minusMonths(1 + random.nextInt(12));
+        return "&" + fromParam + "=" + from + "&" + toParam + "=" + to;
+    }
+}
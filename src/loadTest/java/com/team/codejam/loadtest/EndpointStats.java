@@ -0,0 +1,42 @@
+package com.team.codejam.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of the successful requests to one endpoint, in nanoseconds, plus failure and drop counts.
+ */
+final class EndpointStats {
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(2);
+
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+
+    void record(long latencyNanos) {
+        latencies.recordValue(Math.min(latencyNanos, HIGHEST_LATENCY));
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    void dropped() {
+        drops.increment();
+    }
+
+    Histogram latencies() {
+        return latencies;
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    long drops() {
+        return drops.sum();
+    }
+}
@@ -0,0 +1,65 @@
+package com.team.codejam.loadtest;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints throughput and p50/p99/p999 per endpoint of two load test runs side by side, with the change
+ * of the candidate against the baseline.
+ * <p>
+ * {@code ./gradlew loadTestCompare -Pbaseline=build/results/loadtest/<a> -Pcandidate=build/results/loadtest/<b>}
+ */
+public final class LoadTestCompare {
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] PERCENTILE_LABELS = {"p50 ms", "p99 ms", "p999 ms"};
+
+    private LoadTestCompare() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) throw new IllegalArgumentException("Usage: LoadTestCompare <baseline dir> <candidate dir>");
+        Map<String, Histogram> baseline = read(Path.of(args[0]));
+        Map<String, Histogram> candidate = read(Path.of(args[1]));
+        System.out.printf("%-28s %-8s %12s %12s %9s%n", "endpoint", "metric", "baseline", "candidate", "change");
+        for (Map.Entry<String, Histogram> entry : baseline.entrySet()) {
+            Histogram before = entry.getValue();
+            Histogram after = candidate.get(entry.getKey());
+            if (after == null) continue;
+            row(entry.getKey(), "req/s", throughput(before), throughput(after));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                row(entry.getKey(), PERCENTILE_LABELS[i], before.getValueAtPercentile(PERCENTILES[i]) / 1_000_000.0,
+                        after.getValueAtPercentile(PERCENTILES[i]) / 1_000_000.0);
+            }
+        }
+    }
+
+    private static void row(String endpoint, String metric, double before, double after) {
+        String change = before == 0 ? "n/a" : String.format("%+.1f%%", (after - before) / before * 100);
+        System.out.printf("%-28s %-8s %12.2f %12.2f %9s%n", endpoint, metric, before, after, change);
+    }
+
+    private static double throughput(Histogram histogram) {
+        long millis = histogram.getEndTimeStamp() - histogram.getStartTimeStamp();
+        return millis > 0 ? histogram.getTotalCount() * 1000.0 / millis : 0;
+    }
+
+    private static Map<String, Histogram> read(Path directory) throws IOException {
+        Map<String, Histogram> byEndpoint = new LinkedHashMap<>();
+        HistogramLogReader reader = new HistogramLogReader(directory.resolve(LoadTestResult.LOG_FILE).toFile());
+        try {
+            EncodableHistogram histogram;
+            while ((histogram = reader.nextIntervalHistogram()) != null) {
+                byEndpoint.put(histogram.getTag(), (Histogram) histogram);
+            }
+        } finally {
+            reader.close();
+        }
+        return byEndpoint;
+    }
+}
@@ -0,0 +1,141 @@
+package com.team.codejam.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team.codejam.CodeJamApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Starts the app with the test profile, seeds it through the seed job, signs in the seeded users and drives
+ * the configured traffic mix against it. Latency and throughput per endpoint go to the output directory as
+ * an HdrHistogram log plus a text summary; compare two runs with {@link LoadTestCompare}.
+ * <p>
+ * {@code ./gradlew loadTest -PloadTestArgs="--users=2000 --rate=500 --duration=120 --tag=<commit>"}
+ * <p>
+ * Platform against virtual threads under a slow database: run once with {@code --virtual-threads=false} and once
+ * with {@code --virtual-threads=true}, both with e.g. {@code --db-latency-ms=20} and distinct tags, then compare.
+ */
+public final class LoadTestMain {
+    private static final String PASSWORD = "seed-password";
+    // BCrypt makes sign-in CPU bound, more parallel sign-ins only queue up on the server
+    private static final int SIGN_IN_PARALLELISM = 32;
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext app = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            app = startApplication(options);
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            List<VirtualUser> users = signIn(client, baseUrl, options, executor);
+            System.out.printf("Signed in %d users, driving %.0f requests/s for %ds after %ds warmup%n",
+                    users.size(), options.rate(), options.duration().toSeconds(), options.warmup().toSeconds());
+            LoadTestResult result = new OpenModelDriver(client, baseUrl, options, users).run();
+            result.write(options.output());
+            result.print(System.out);
+            System.out.println("Results written to " + options.output().toAbsolutePath());
+        } finally {
+            if (app != null) SpringApplication.exit(app);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(CodeJamApplication.class);
+        if (!options.dbLatency().isZero()) {
+            builder.initializers(context -> context.getBeanFactory().addBeanPostProcessor(
+                    new SlowDataSource.PostProcessor(options.dbLatency())));
+        }
+        return builder
+                .profiles("test", "seed")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "codejam.seed.users=" + options.users(),
+                        "codejam.seed.vehicles-per-user=" + options.vehiclesPerUser(),
+                        "codejam.seed.fills-per-vehicle=" + options.fillsPerVehicle(),
+                        "codejam.seed.random-seed=" + options.seed(),
+                        "codejam.seed.end-date=" + Endpoint.SEED_END_DATE,
+                        "codejam.seed.password=" + PASSWORD,
+                        "codejam.seed.exit-after=false",
+                        "spring.threads.virtual.enabled=" + options.virtualThreads())
+                .run();
+    }
+
+    // Signs in the seeded users and loads their vehicles; users without vehicles are left out
+    private static List<VirtualUser> signIn(HttpClient client, String baseUrl, LoadTestOptions options,
+                                            ExecutorService executor) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Semaphore parallelism = new Semaphore(SIGN_IN_PARALLELISM);
+        List<Future<VirtualUser>> pending = new ArrayList<>(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            String email = "seed-" + options.seed() + "-" + i + "@example.com";
+            pending.add(executor.submit(() -> {
+                parallelism.acquire();
+                try {
+                    return signIn(client, baseUrl, objectMapper, email);
+                } finally {
+                    parallelism.release();
+                }
+            }));
+        }
+        List<VirtualUser> users = new ArrayList<>(pending.size());
+        for (Future<VirtualUser> future : pending) {
+            VirtualUser user = future.get();
+            if (user.hasVehicles()) users.add(user);
+        }
+        if (users.isEmpty()) throw new IllegalStateException("No seeded user with vehicles could sign in");
+        return Collections.unmodifiableList(users);
+    }
+
+    private static VirtualUser signIn(HttpClient client, String baseUrl, ObjectMapper objectMapper, String email)
+            throws IOException, InterruptedException {
+        String credentials = objectMapper.createObjectNode().put("email", email).put("password", PASSWORD).toString();
+        HttpResponse<Void> signIn = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        String cookie = signIn.headers().allValues("Set-Cookie").stream()
+                .filter(value -> value.startsWith("JSESSIONID="))
+                .map(value -> value.substring(0, value.indexOf(';') > 0 ? value.indexOf(';') : value.length()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Sign-in of " + email + " failed with status " + signIn.statusCode()));
+
+        HttpResponse<String> vehicles = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/vehicles"))
+                .header("Cookie", cookie)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (vehicles.statusCode() != 200) {
+            throw new IllegalStateException("Listing vehicles of " + email + " failed with status " + vehicles.statusCode());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode vehicle : objectMapper.readTree(vehicles.body())) ids.add(vehicle.get("id").asLong());
+        return new VirtualUser(cookie, ids.stream().mapToLong(Long::longValue).toArray());
+    }
+}
@@ -0,0 +1,61 @@
+package com.team.codejam.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTestMain}, given as {@code --name=value}.
+ *
+ * @param baseUrl       server to drive; when null the app is started in-process with the test profile and seeded
+ * @param users         users to sign in; also the number of users seeded when the app is started in-process
+ * @param rate          request arrivals per second, independent of how fast the server answers
+ * @param mix           relative weight per endpoint
+ * @param maxInFlight   requests allowed to wait for a response before new arrivals are counted as dropped
+ * @param virtualThreads in-process app only: serve requests on virtual threads instead of Tomcat's platform pool
+ * @param dbLatency     in-process app only: delay added to every JDBC statement, to stand in for a remote database
+ */
+public record LoadTestOptions(String baseUrl, int users, int vehiclesPerUser, int fillsPerVehicle, long seed,
+                              double rate, Duration warmup, Duration duration, int maxInFlight,
+                              Map<Endpoint, Integer> mix, Path output, boolean virtualThreads, Duration dbLatency) {
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String tag = values.getOrDefault("tag", "latest");
+        return new LoadTestOptions(
+                values.get("base-url"),
+                Integer.parseInt(values.getOrDefault("users", "2000")),
+                Integer.parseInt(values.getOrDefault("vehicles-per-user", "2")),
+                Integer.parseInt(values.getOrDefault("fills-per-vehicle", "100")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                parseMix(values.get("mix")),
+                Path.of(values.getOrDefault("output", "build/results/loadtest/" + tag)),
+                Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("db-latency-ms", "0"))));
+    }
+
+    // "history:20,dashboard:20,..."; endpoints that are not listed get no traffic
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        if (mix == null) {
+            for (Endpoint endpoint : Endpoint.values()) weights.put(endpoint, endpoint.getDefaultWeight());
+            return weights;
+        }
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) throw new IllegalArgumentException("Expected endpoint:weight but got " + part);
+            weights.put(Endpoint.byName(pair[0]), Integer.parseInt(pair[1]));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,74 @@
+package com.team.codejam.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Per-endpoint results of the measured window. {@link #write} produces {@code latency.hlog} (one tagged
+ * histogram per endpoint, read back by {@link LoadTestCompare}), a {@code <endpoint>.hgrm} percentile
+ * distribution per endpoint for the HdrHistogram plotter, and {@code summary.txt}.
+ */
+final class LoadTestResult {
+    static final String LOG_FILE = "latency.hlog";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<Endpoint, EndpointStats> stats;
+    private final long startMillis;
+    private final long endMillis;
+
+    LoadTestResult(Map<Endpoint, EndpointStats> stats, long startMillis, long endMillis) {
+        this.stats = stats;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream log = new PrintStream(directory.resolve(LOG_FILE).toFile())) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startMillis);
+            writer.outputLegend();
+            for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+                Histogram latencies = entry.getValue().latencies().copy();
+                latencies.setTag(entry.getKey().getName());
+                latencies.setStartTimeStamp(startMillis);
+                latencies.setEndTimeStamp(endMillis);
+                writer.outputIntervalHistogram(latencies);
+            }
+        }
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            try (PrintStream out = new PrintStream(directory.resolve(entry.getKey().getName() + ".hgrm").toFile())) {
+                entry.getValue().latencies().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+        try (PrintStream summary = new PrintStream(directory.resolve("summary.txt").toFile())) {
+            print(summary);
+        }
+    }
+
+    void print(PrintStream out) {
+        double seconds = (endMillis - startMillis) / 1000.0;
+        out.printf("%-28s %10s %9s %8s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "dropped", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            Histogram latencies = endpoint.latencies();
+            out.printf("%-28s %10d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().getName(), latencies.getTotalCount(), latencies.getTotalCount() / seconds,
+                    endpoint.failures(), endpoint.drops(),
+                    millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
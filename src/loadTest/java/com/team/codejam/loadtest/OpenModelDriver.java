@@ -0,0 +1,113 @@
+package com.team.codejam.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive as a Poisson process at the configured rate, whether or not earlier
+ * requests have been answered. Latency is measured from a request's scheduled arrival rather than from
+ * when it was actually sent, so a stalled server shows up as latency instead of silently lowering the
+ * offered load (coordinated omission).
+ */
+final class OpenModelDriver {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final List<VirtualUser> users;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    OpenModelDriver(HttpClient client, String baseUrl, LoadTestOptions options, List<VirtualUser> users) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.users = users;
+        this.endpoints = options.mix().keySet().toArray(new Endpoint[0]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += options.mix().get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) throw new IllegalArgumentException("The traffic mix has no weight");
+    }
+
+    LoadTestResult run() throws InterruptedException {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) stats.put(endpoint, new EndpointStats());
+        // Requests, users and bodies are drawn on this thread only, so a seed always gives the same sequence
+        SplittableRandom random = new SplittableRandom(options.seed());
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        long measureStartMillis = System.currentTimeMillis() + options.warmup().toMillis();
+        long arrival = start;
+        while (arrival < end) {
+            long wait = arrival - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            fire(random, stats, inFlight, arrival, arrival >= measureFrom);
+            arrival += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        }
+        long measureEndMillis = System.currentTimeMillis();
+        // Let the requests still in flight complete; they belong to the measured window
+        if (!inFlight.tryAcquire(options.maxInFlight(), REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+            System.err.println("Some requests did not complete after the run");
+        }
+        return new LoadTestResult(stats, measureStartMillis, measureEndMillis);
+    }
+
+    private void fire(SplittableRandom random, Map<Endpoint, EndpointStats> stats, Semaphore inFlight,
+                      long scheduledAt, boolean measured) {
+        Endpoint endpoint = pick(random);
+        EndpointStats endpointStats = stats.get(endpoint);
+        VirtualUser user = users.get(random.nextInt(users.size()));
+        long vehicleId = user.randomVehicle(random);
+        String path = endpoint.path(user, vehicleId, random);
+        String body = endpoint.body(user, vehicleId, random);
+        if (!inFlight.tryAcquire()) {
+            if (measured) endpointStats.dropped();
+            return;
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Cookie", user.sessionCookie());
+        if (body != null) {
+            request.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            request.GET();
+        }
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long latency = System.nanoTime() - scheduledAt;
+            inFlight.release();
+            if (!measured) return;
+            if (error != null || response.statusCode() >= 400) {
+                endpointStats.failed();
+            } else {
+                endpointStats.record(latency);
+            }
+        });
+    }
+
+    private Endpoint pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) return endpoints[i];
+        }
+        return endpoints[endpoints.length - 1];
+    }
+}
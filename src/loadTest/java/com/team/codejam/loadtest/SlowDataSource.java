@@ -0,0 +1,75 @@
+package com.team.codejam.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Delays every statement by a fixed time while it holds its connection, so the in-memory database behaves
+ * like one across a network. Requests then spend most of their time blocked on JDBC, which is where
+ * platform and virtual threads differ.
+ */
+final class SlowDataSource extends DelegatingDataSource {
+    private final Duration latency;
+
+    SlowDataSource(DataSource targetDataSource, Duration latency) {
+        super(targetDataSource);
+        this.latency = latency;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return slow(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return slow(super.getConnection(username, password));
+    }
+
+    // Statements are wrapped under the interface the connection method declares (Statement, PreparedStatement, ...)
+    private Connection slow(Connection connection) {
+        return (Connection) proxy(Connection.class, connection, (method, result) -> result instanceof Statement
+                ? proxy(method.getReturnType(), result, this::delay)
+                : result);
+    }
+
+    private Object delay(Method method, Object result) throws InterruptedException {
+        if (method.getName().startsWith("execute")) Thread.sleep(latency);
+        return result;
+    }
+
+    // Runs each call on the target, then hands its result to after
+    private static Object proxy(Class<?> type, Object target, After after) {
+        return Proxy.newProxyInstance(SlowDataSource.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return after.apply(method, result);
+        });
+    }
+
+    @FunctionalInterface
+    private interface After {
+        Object apply(Method method, Object result) throws Exception;
+    }
+
+    record PostProcessor(Duration latency) implements BeanPostProcessor {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource dataSource && !(bean instanceof SlowDataSource)
+                    ? new SlowDataSource(dataSource, latency) : bean;
+        }
+    }
+}
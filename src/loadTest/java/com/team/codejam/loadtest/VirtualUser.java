@@ -0,0 +1,41 @@
+package com.team.codejam.loadtest;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A signed-in user: the session cookie and the user's vehicles. Fills posted during the run get
+ * odometers far above anything seeded, increasing per vehicle, so they pass the odometer checks.
+ */
+final class VirtualUser {
+    private static final int FIRST_ODOMETER = 5_000_000;
+
+    private final String sessionCookie;
+    private final long[] vehicleIds;
+    private final AtomicIntegerArray odometers;
+
+    VirtualUser(String sessionCookie, long[] vehicleIds) {
+        this.sessionCookie = sessionCookie;
+        this.vehicleIds = vehicleIds;
+        this.odometers = new AtomicIntegerArray(vehicleIds.length);
+    }
+
+    String sessionCookie() {
+        return sessionCookie;
+    }
+
+    boolean hasVehicles() {
+        return vehicleIds.length > 0;
+    }
+
+    long randomVehicle(SplittableRandom random) {
+        return vehicleIds[random.nextInt(vehicleIds.length)];
+    }
+
+    int nextOdometer(long vehicleId) {
+        for (int i = 0; i < vehicleIds.length; i++) {
+            if (vehicleIds[i] == vehicleId) return FIRST_ODOMETER + odometers.addAndGet(i, 500);
+        }
+        throw new IllegalArgumentException("Vehicle " + vehicleId + " does not belong to this user");
+    }
+}
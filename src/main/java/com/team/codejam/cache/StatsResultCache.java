@@ -0,0 +1,69 @@
+package com.team.codejam.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.team.codejam.service.DataVersionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Caches computed statistics per (user, vehicle, date range, unit system). Keys also carry the
+ * data version of the scope, so a write makes older results unreachable as soon as it commits,
+ * on every node; {@link #evict} then frees them on this node. Cached values are shared and must
+ * not be modified by callers.
+ */
+@Component
+public class StatsResultCache {
+    private final DataVersionService dataVersionService;
+    private final Cache<Key, Object> cache;
+
+    public StatsResultCache(DataVersionService dataVersionService, MeterRegistry meterRegistry,
+                            @Value("${codejam.stats-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${codejam.stats-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.dataVersionService = dataVersionService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "statsResults");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name, Long userId, Long vehicleId, LocalDate from, LocalDate to, boolean imperialUnits, Supplier<T> loader) {
+        Long version = dataVersionService.getVersion(userId, vehicleId);
+        // Unknown or foreign vehicle: nothing worth caching
+        if (version == null) return loader.get();
+        Key key = new Key(name, userId, vehicleId, from, to, imperialUnits, version);
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) return (T) cached;
+        // Loaded outside the cache: Cache.get would run the loader, queries included, inside the map's
+        // bin lock, which pins a virtual thread to its carrier. Concurrent misses may compute twice.
+        T loaded = loader.get();
+        cache.put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Drops the results of the vehicle and the user's all-vehicle results once the current transaction commits.
+     */
+    public void evict(Long userId, Long vehicleId) {
+        AfterCommit.run(() -> cache.asMap().keySet().removeIf(key -> key.userId().equals(userId)
+                && (key.vehicleId() == null || key.vehicleId().equals(vehicleId))));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private record Key(String name, Long userId, Long vehicleId, LocalDate from, LocalDate to,
+                       boolean imperialUnits, long version) {
+    }
+}
@@ -0,0 +1,303 @@
+package com.team.codejam.cache;
+
+import com.team.codejam.dto.FuelEntryPointDto;
+import com.team.codejam.dto.VehicleTotalsDto;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable columnar snapshot of one vehicle's fill-ups, sorted by (date, odometer).
+ * Brand, grade and station are dictionary-encoded into short codes; -1 encodes null.
+ * Writes never modify a snapshot, they return a copy with the fill inserted or removed.
+ * <p>
+ * Each snapshot also keeps prefix sums of liters and spend, so totals of any date window cost two
+ * binary searches and a subtraction. Distance needs no prefix array: odometers strictly increase
+ * along a vehicle's series, so a window's distance is the difference of its edge odometers.
+ */
+public final class VehicleSeries {
+    private static final short NULL_CODE = -1;
+
+    private final long vehicleId;
+    private final long userId;
+    // Data version of the vehicle the snapshot reflects
+    private final long version;
+    private final int size;
+    private final int[] epochDays;
+    private final int[] odometers;
+    private final double[] liters;
+    private final double[] amounts;
+    private final short[] brands;
+    private final short[] grades;
+    private final short[] stations;
+    private final String[] dictionary;
+    // cumulativeX[i] is the sum of x over the first i fills
+    private final double[] cumulativeLiters;
+    private final double[] cumulativeSpend;
+
+    private VehicleSeries(long vehicleId, long userId, long version, int size, int[] epochDays, int[] odometers, double[] liters,
+                          double[] amounts, short[] brands, short[] grades, short[] stations, String[] dictionary) {
+        this.vehicleId = vehicleId;
+        this.userId = userId;
+        this.version = version;
+        this.size = size;
+        this.epochDays = epochDays;
+        this.odometers = odometers;
+        this.liters = liters;
+        this.amounts = amounts;
+        this.brands = brands;
+        this.grades = grades;
+        this.stations = stations;
+        this.dictionary = dictionary;
+        this.cumulativeLiters = prefixSums(liters, size);
+        this.cumulativeSpend = prefixSums(amounts, size);
+    }
+
+    /**
+     * Builds a snapshot from points already ordered by (date, odometer).
+     */
+    public static VehicleSeries of(long vehicleId, long userId, long version, List<FuelEntryPointDto> points) {
+        int n = points.size();
+        int[] epochDays = new int[n];
+        int[] odometers = new int[n];
+        double[] liters = new double[n];
+        double[] amounts = new double[n];
+        short[] brands = new short[n];
+        short[] grades = new short[n];
+        short[] stations = new short[n];
+        Map<String, Short> codes = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            FuelEntryPointDto point = points.get(i);
+            epochDays[i] = (int) point.getDate().toEpochDay();
+            odometers[i] = point.getOdometer();
+            liters[i] = point.getLiters();
+            amounts[i] = point.getTotalAmount();
+            brands[i] = encode(codes, point.getFuelBrand());
+            grades[i] = encode(codes, point.getFuelGrade());
+            stations[i] = encode(codes, point.getStationName());
+        }
+        String[] dictionary = new String[codes.size()];
+        codes.forEach((value, code) -> dictionary[code] = value);
+        return new VehicleSeries(vehicleId, userId, version, n, epochDays, odometers, liters, amounts, brands, grades, stations, dictionary);
+    }
+
+    /**
+     * Copy of this snapshot at the given version with the fill inserted at its (date, odometer) position.
+     * A snapshot that already holds the fill is only relabelled.
+     */
+    public VehicleSeries withFill(long newVersion, LocalDate date, int odometer, double fillLiters, double amount,
+                                  String brand, String grade, String station) {
+        int day = (int) date.toEpochDay();
+        int at = position(day, odometer);
+        if (at < size && epochDays[at] == day && odometers[at] == odometer) return withVersion(newVersion);
+        String[] newDictionary = dictionary;
+        short brandCode = lookup(dictionary, brand);
+        if (brandCode == NULL_CODE && brand != null) newDictionary = append(newDictionary, brand);
+        short gradeCode = lookup(newDictionary, grade);
+        if (gradeCode == NULL_CODE && grade != null) newDictionary = append(newDictionary, grade);
+        short stationCode = lookup(newDictionary, station);
+        if (stationCode == NULL_CODE && station != null) newDictionary = append(newDictionary, station);
+        return new VehicleSeries(vehicleId, userId, newVersion, size + 1,
+                insert(epochDays, at, day), insert(odometers, at, odometer),
+                insert(liters, at, fillLiters), insert(amounts, at, amount),
+                insert(brands, at, lookup(newDictionary, brand)), insert(grades, at, lookup(newDictionary, grade)),
+                insert(stations, at, lookup(newDictionary, station)), newDictionary);
+    }
+
+    /**
+     * Copy of this snapshot at the given version without the fill at (date, odometer).
+     * A snapshot that does not hold the fill is only relabelled.
+     */
+    public VehicleSeries withoutFill(long newVersion, LocalDate date, int odometer) {
+        int day = (int) date.toEpochDay();
+        int at = position(day, odometer);
+        if (at == size || epochDays[at] != day || odometers[at] != odometer) return withVersion(newVersion);
+        return new VehicleSeries(vehicleId, userId, newVersion, size - 1,
+                remove(epochDays, at), remove(odometers, at), remove(liters, at), remove(amounts, at),
+                remove(brands, at), remove(grades, at), remove(stations, at), dictionary);
+    }
+
+    private VehicleSeries withVersion(long newVersion) {
+        return new VehicleSeries(vehicleId, userId, newVersion, size, epochDays, odometers, liters, amounts,
+                brands, grades, stations, dictionary);
+    }
+
+    /**
+     * Index of the first fill on or after the given day.
+     */
+    public int lowerBound(int epochDay) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDays[mid] < epochDay) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Index of the first fill after the given day.
+     */
+    public int upperBound(int epochDay) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDays[mid] <= epochDay) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Totals of the fills in {@code [from, to]} (null bounds are open), or null if there are none.
+     */
+    public VehicleTotalsDto totals(LocalDate from, LocalDate to) {
+        int start = from != null ? lowerBound((int) from.toEpochDay()) : 0;
+        int end = to != null ? upperBound((int) to.toEpochDay()) : size;
+        if (start >= end) return null;
+        return new VehicleTotalsDto(vehicleId, (long) (end - start),
+                cumulativeLiters[end] - cumulativeLiters[start], cumulativeSpend[end] - cumulativeSpend[start],
+                odometers[start], odometers[end - 1],
+                LocalDate.ofEpochDay(epochDays[start]), LocalDate.ofEpochDay(epochDays[end - 1]));
+    }
+
+    public long getVehicleId() {
+        return vehicleId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int epochDay(int i) {
+        return epochDays[i];
+    }
+
+    public int odometer(int i) {
+        return odometers[i];
+    }
+
+    public double liters(int i) {
+        return liters[i];
+    }
+
+    public double amount(int i) {
+        return amounts[i];
+    }
+
+    public String brand(int i) {
+        return decode(brands[i]);
+    }
+
+    public String grade(int i) {
+        return decode(grades[i]);
+    }
+
+    public String station(int i) {
+        return decode(stations[i]);
+    }
+
+    private String decode(short code) {
+        return code == NULL_CODE ? null : dictionary[code];
+    }
+
+    // First index whose (day, odometer) is not before the given one
+    private int position(int day, int odometer) {
+        int lo = lowerBound(day);
+        while (lo < size && epochDays[lo] == day && odometers[lo] < odometer) lo++;
+        return lo;
+    }
+
+    private static double[] prefixSums(double[] values, int size) {
+        double[] sums = new double[size + 1];
+        for (int i = 0; i < size; i++) {
+            sums[i + 1] = sums[i] + values[i];
+        }
+        return sums;
+    }
+
+    private static short encode(Map<String, Short> codes, String value) {
+        if (value == null) return NULL_CODE;
+        Short code = codes.get(value);
+        if (code == null) {
+            if (codes.size() == Short.MAX_VALUE) throw new IllegalStateException("Too many distinct values for one vehicle");
+            code = (short) codes.size();
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    private static short lookup(String[] dictionary, String value) {
+        if (value == null) return NULL_CODE;
+        for (int i = 0; i < dictionary.length; i++) {
+            if (Objects.equals(dictionary[i], value)) return (short) i;
+        }
+        return NULL_CODE;
+    }
+
+    private static String[] append(String[] dictionary, String value) {
+        if (dictionary.length == Short.MAX_VALUE) throw new IllegalStateException("Too many distinct values for one vehicle");
+        String[] copy = Arrays.copyOf(dictionary, dictionary.length + 1);
+        copy[dictionary.length] = value;
+        return copy;
+    }
+
+    private int[] insert(int[] values, int at, int value) {
+        int[] copy = new int[size + 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(values, at, copy, at + 1, size - at);
+        return copy;
+    }
+
+    private double[] insert(double[] values, int at, double value) {
+        double[] copy = new double[size + 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(values, at, copy, at + 1, size - at);
+        return copy;
+    }
+
+    private short[] insert(short[] values, int at, short value) {
+        short[] copy = new short[size + 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(values, at, copy, at + 1, size - at);
+        return copy;
+    }
+
+    private int[] remove(int[] values, int at) {
+        int[] copy = new int[size - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, size - at - 1);
+        return copy;
+    }
+
+    private double[] remove(double[] values, int at) {
+        double[] copy = new double[size - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, size - at - 1);
+        return copy;
+    }
+
+    private short[] remove(short[] values, int at) {
+        short[] copy = new short[size - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, size - at - 1);
+        return copy;
+    }
+}
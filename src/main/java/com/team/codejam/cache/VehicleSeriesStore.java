@@ -0,0 +1,127 @@
+package com.team.codejam.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.team.codejam.dto.VehicleTotalsDto;
+import com.team.codejam.dto.VehicleVersionDto;
+import com.team.codejam.entity.FuelEntry;
+import com.team.codejam.repository.FuelEntryRepository;
+import com.team.codejam.repository.VehicleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory {@link VehicleSeries} per vehicle, loaded on first read. Writes replace a vehicle's
+ * snapshot with an updated copy once their transaction commits, so readers only ever see
+ * committed, immutable snapshots and never lock. Every read checks the vehicles' data versions
+ * and reloads snapshots that lag behind, e.g. after a write on another node. The store is bounded
+ * by the total number of fills it holds; idle vehicles expire and are loaded again when read.
+ */
+@Component
+public class VehicleSeriesStore {
+    private final FuelEntryRepository fuelEntryRepository;
+    private final VehicleRepository vehicleRepository;
+    private final ConcurrentMap<Long, VehicleSeries> series;
+
+    @Value("${codejam.series-cache.enabled:true}")
+    private boolean enabled;
+
+    public VehicleSeriesStore(FuelEntryRepository fuelEntryRepository, VehicleRepository vehicleRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${codejam.series-cache.maximum-fills:1000000}") long maximumFills,
+                              @Value("${codejam.series-cache.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.fuelEntryRepository = fuelEntryRepository;
+        this.vehicleRepository = vehicleRepository;
+        Cache<Long, VehicleSeries> cache = Caffeine.newBuilder()
+                // An empty history still costs its snapshot
+                .<Long, VehicleSeries>weigher((vehicleId, snapshot) -> Math.max(1, snapshot.size()))
+                .maximumWeight(maximumFills)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "vehicleSeries");
+        this.series = cache.asMap();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Snapshots of the given vehicle, or of all the user's vehicles when vehicleId is null.
+     * Vehicles the user does not own are skipped.
+     */
+    public List<VehicleSeries> getSeries(Long userId, Long vehicleId) {
+        List<VehicleVersionDto> versions = vehicleId != null
+                ? vehicleRepository.findVersion(vehicleId, userId).map(List::of).orElse(List.of())
+                : vehicleRepository.findVersionsByUserId(userId);
+        List<VehicleSeries> result = new ArrayList<>(versions.size());
+        for (VehicleVersionDto version : versions) {
+            VehicleSeries snapshot = series.get(version.getVehicleId());
+            if (snapshot == null || snapshot.getVersion() < version.getDataVersion()) {
+                // Loaded before touching the map: a query inside compute would hold the bin lock (and pin
+                // a virtual thread) for its whole round trip. Racing loads keep the newer snapshot.
+                snapshot = series.merge(version.getVehicleId(), load(version), (current, loaded) ->
+                        current.getVersion() >= loaded.getVersion() ? current : loaded);
+            }
+            result.add(snapshot);
+        }
+        return result;
+    }
+
+    /**
+     * Per-vehicle totals for {@code [from, to]}; null bounds are open.
+     */
+    public List<VehicleTotalsDto> aggregate(Long userId, Long vehicleId, LocalDate from, LocalDate to) {
+        List<VehicleTotalsDto> result = new ArrayList<>();
+        for (VehicleSeries snapshot : getSeries(userId, vehicleId)) {
+            VehicleTotalsDto totals = snapshot.totals(from, to);
+            if (totals != null) result.add(totals);
+        }
+        return result;
+    }
+
+    /**
+     * Applies an added fill once the transaction that moved the vehicle to {@code newVersion} commits.
+     */
+    public void onEntryAdded(FuelEntry entry, long newVersion) {
+        afterCommit(entry.getVehicle().getId(), newVersion, snapshot -> snapshot.withFill(newVersion, entry.getDate(),
+                entry.getOdometer(), entry.getLiters(), entry.getTotalAmount(),
+                entry.getFuelBrand(), entry.getFuelGrade(), entry.getStationName()));
+    }
+
+    /**
+     * Applies a deleted fill once the transaction that moved the vehicle to {@code newVersion} commits.
+     */
+    public void onEntryDeleted(FuelEntry entry, long newVersion) {
+        afterCommit(entry.getVehicle().getId(), newVersion,
+                snapshot -> snapshot.withoutFill(newVersion, entry.getDate(), entry.getOdometer()));
+    }
+
+    public void evict(Long vehicleId) {
+        AfterCommit.run(() -> series.remove(vehicleId));
+    }
+
+    // The version is read before the points, so the points are at least as new as the version
+    private VehicleSeries load(VehicleVersionDto version) {
+        return VehicleSeries.of(version.getVehicleId(), version.getUserId(), version.getDataVersion(),
+                fuelEntryRepository.findSeriesPoints(version.getVehicleId()));
+    }
+
+    // Only a snapshot exactly one version behind is patched; any other is either already newer or has
+    // missed a write and is reloaded on the next read. A snapshot loaded while the write was committing
+    // may already hold it, which the idempotent withFill/withoutFill absorb.
+    private void afterCommit(Long vehicleId, long newVersion, UnaryOperator<VehicleSeries> update) {
+        AfterCommit.run(() -> series.computeIfPresent(vehicleId, (id, snapshot) ->
+                snapshot.getVersion() == newVersion - 1 ? update.apply(snapshot) : snapshot));
+    }
+}
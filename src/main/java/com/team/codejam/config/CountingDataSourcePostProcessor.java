@@ -0,0 +1,24 @@
+package com.team.codejam.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's data sources in a {@link CountingDataSource}. The wrapper is a
+ * {@link org.springframework.jdbc.datasource.DelegatingDataSource}, so pool metrics still find the pool behind it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "codejam.request-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,115 @@
+package com.team.codejam.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Records the statements, rows and entities each request pulled from the database as
+ * {@code codejam.request.statements}, {@code codejam.request.rows.fetched} and
+ * {@code codejam.request.entities.loaded}, tagged with the same method and uri template as
+ * {@code http.server.requests}.
+ * <p>
+ * With {@code codejam.request-stats.headers} on (non-prod profiles) the counts are also returned as
+ * {@code X-Query-Count}, {@code X-Rows-Fetched} and {@code X-Entities-Loaded}. The body is buffered
+ * in that mode so the headers can still be set after the response has been serialized, which is
+ * where lazy loads show up.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestLoadMetricsFilter extends OncePerRequestFilter {
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String ROWS_FETCHED_HEADER = "X-Rows-Fetched";
+    public static final String ENTITIES_LOADED_HEADER = "X-Entities-Loaded";
+
+    private static final String BUFFERING_DISABLED_ATTRIBUTE = RequestLoadMetricsFilter.class.getName() + ".BUFFERING_DISABLED";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${codejam.request-stats.headers:false}")
+    private boolean headers;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = headers ? new OptionalBufferingResponseWrapper(request, response) : null;
+        RequestLoadStats stats = RequestLoadStats.start();
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            RequestLoadStats.finish();
+            record(request, stats);
+            if (buffered != null) {
+                buffered.setHeader(QUERY_COUNT_HEADER, Long.toString(stats.getStatements()));
+                buffered.setHeader(ROWS_FETCHED_HEADER, Long.toString(stats.getRowsFetched()));
+                buffered.setHeader(ENTITIES_LOADED_HEADER, Long.toString(stats.getEntitiesLoaded()));
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    /**
+     * Lets a handler that streams its body, possibly after this filter has returned, write straight to the
+     * response. The counts of such a request only cover the work done before its handler returned.
+     */
+    public static void disableBuffering(HttpServletRequest request) {
+        request.setAttribute(BUFFERING_DISABLED_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    private void record(HttpServletRequest request, RequestLoadStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+        summary("codejam.request.statements", "JDBC statements executed while serving one request", "statements", tags)
+                .record(stats.getStatements());
+        summary("codejam.request.rows.fetched", "Result set rows read while serving one request", "rows", tags)
+                .record(stats.getRowsFetched());
+        summary("codejam.request.entities.loaded", "Entities hydrated while serving one request", "entities", tags)
+                .record(stats.getEntitiesLoaded());
+    }
+
+    private DistributionSummary summary(String name, String description, String baseUnit, Tags tags) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static final class OptionalBufferingResponseWrapper extends ContentCachingResponseWrapper {
+        private final HttpServletRequest request;
+
+        OptionalBufferingResponseWrapper(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return bufferingDisabled() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return bufferingDisabled() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        private boolean bufferingDisabled() {
+            return request.getAttribute(BUFFERING_DISABLED_ATTRIBUTE) != null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.team.codejam.config;
+
+/**
+ * Counts of what the current request pulled from the database. Bound to the request's thread by
+ * {@link RequestLoadMetricsFilter}; work outside a request (jobs, startup) is not counted.
+ */
+public final class RequestLoadStats {
+    private static final ThreadLocal<RequestLoadStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long rowsFetched;
+    private long entitiesLoaded;
+
+    private RequestLoadStats() {
+    }
+
+    static RequestLoadStats start() {
+        RequestLoadStats stats = new RequestLoadStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    static void statementExecuted() {
+        RequestLoadStats stats = CURRENT.get();
+        if (stats != null) stats.statements++;
+    }
+
+    static void rowFetched() {
+        RequestLoadStats stats = CURRENT.get();
+        if (stats != null) stats.rowsFetched++;
+    }
+
+    static void entityLoaded() {
+        RequestLoadStats stats = CURRENT.get();
+        if (stats != null) stats.entitiesLoaded++;
+    }
+
+    /**
+     * JDBC statements executed; a batch counts once.
+     */
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched;
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+}
@@ -25,7 +25,10 @@ public class SecurityConfig {
                                 // Swagger/OpenAPI endpoints
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
-                                "/swagger-ui.html"
+                                "/swagger-ui.html",
+                                // Probes and metrics scraping; keep /actuator off the public ingress
+                                "/actuator/health/**",
+                                "/actuator/prometheus"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -46,6 +49,7 @@ public class SecurityConfig {
                 registry.addMapping("/**")
                         .allowedOrigins("http://localhost:3000") // Replace with your frontend origin
                         .allowedMethods("*")
+                        .exposedHeaders("ETag")
                         .allowCredentials(true);
             }
         };
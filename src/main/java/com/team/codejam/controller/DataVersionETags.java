@@ -0,0 +1,55 @@
+package com.team.codejam.controller;
+
+import com.team.codejam.service.DataVersionService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+
+/**
+ * Strong ETags for responses built from a user's fuel data. The tag is derived from the data versions
+ * rather than from the body, so a client holding the current representation gets a 304 before any fuel
+ * entry is read.
+ */
+@Component
+@RequiredArgsConstructor
+class DataVersionETags {
+    private final DataVersionService dataVersionService;
+
+    /**
+     * Tags the response with the version of one vehicle's data, or of all the user's data when vehicleId
+     * is null, and checks If-None-Match against it. When this returns true the response is already a 304
+     * and the handler returns null. A vehicle the user does not own gets no tag and is answered as before.
+     */
+    boolean notModified(ServletWebRequest request, Long userId, Long vehicleId) {
+        return check(request, userId, vehicleId, null);
+    }
+
+    /**
+     * Same, for a resource whose encoding is negotiated from the Accept header: each encoding, named by
+     * {@code encoding} (null for JSON), gets its own tag.
+     */
+    boolean notModified(ServletWebRequest request, Long userId, Long vehicleId, String encoding) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return check(request, userId, vehicleId, encoding);
+    }
+
+    private boolean check(ServletWebRequest request, Long userId, Long vehicleId, String encoding) {
+        // Read before the data, so a write racing this request can only leave an older tag on newer data
+        Long version = dataVersionService.getVersion(userId, vehicleId);
+        if (version == null) return false;
+        // Default ranges and rolling windows end today, so the same version gives a new tag tomorrow
+        String etag = "\"" + userId + "-" + (vehicleId != null ? vehicleId : "all") + "-" + version
+                + "-" + LocalDate.now().toEpochDay() + (encoding != null ? "-" + encoding : "") + "\"";
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            // Replaces the no-store default, so browsers keep the body and revalidate it on every use
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return request.checkNotModified(etag);
+    }
+}
@@ -2,27 +2,41 @@ package com.team.codejam.controller;
 
 import com.team.codejam.dto.BrandGradeComparisonDto;
 import com.team.codejam.dto.DashboardResponseDto;
+import com.team.codejam.dto.FleetDashboardDto;
 import com.team.codejam.dto.FuelEntryPerFillDto;
 import com.team.codejam.entity.FuelEntry;
-import com.team.codejam.entity.User;
+import com.team.codejam.config.RequestLoadMetricsFilter;
+import com.team.codejam.dto.FuelEntryImportResultDto;
+import com.team.codejam.service.FuelEntryExportService;
+import com.team.codejam.service.FuelEntryImportService;
 import com.team.codejam.service.FuelEntryService;
 import com.team.codejam.dto.FuelEntryRequestDto;
 import com.team.codejam.dto.FuelEntryResponseDto;
+import com.team.codejam.dto.FuelEntrySliceDto;
 import com.team.codejam.entity.Vehicle;
 import com.team.codejam.repository.VehicleRepository;
 import com.team.codejam.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.team.codejam.security.AppUserDetails;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -32,21 +46,32 @@ import java.util.stream.Collectors;
 public class FuelEntryController {
 
     private final FuelEntryService fuelEntryService;
+    private final FuelEntryExportService fuelEntryExportService;
+    private final FuelEntryImportService fuelEntryImportService;
     private final VehicleRepository vehicleRepository;
+    private final DataVersionETags eTags;
     @Autowired
     private UserRepository userRepository;
 
     @GetMapping("/vehicle/{vehicleId}")
-    public ResponseEntity<List<FuelEntryResponseDto>> getEntries(
+    public ResponseEntity<?> getEntries(
             @PathVariable Long vehicleId,
-            @RequestParam(required = false, defaultValue = "metric") String units) {
+            @RequestParam(required = false, defaultValue = "metric") String units,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "25") int size,
+            ServletWebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(401).build();
         }
         AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
         Long userId = userDetails.getId();
+        if (eTags.notModified(request, userId, vehicleId)) return null;
         boolean imperialUnits = "imperial".equalsIgnoreCase(units);
+        if (page != null) {
+            Page<FuelEntryResponseDto> dtoPage = fuelEntryService.getPerFillMetricsPage(userId, vehicleId, imperialUnits, page, size);
+            return ResponseEntity.ok(new PaginatedResponse<>(dtoPage.getContent(), dtoPage.getTotalPages(), dtoPage.getTotalElements()));
+        }
         List<FuelEntryResponseDto> dtos = fuelEntryService.getPerFillMetricsForVehicle(userId, vehicleId, imperialUnits);
         return ResponseEntity.ok(dtos);
     }
@@ -58,16 +83,28 @@ public class FuelEntryController {
             return ResponseEntity.status(401).build();
         }
         AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
-        Vehicle vehicle = vehicleRepository.findById(entryDto.getVehicleId()).orElse(null);
-        if (vehicle == null) return ResponseEntity.badRequest().build();
-        FuelEntry entry = toEntity(entryDto, vehicle);
-        User user = userRepository.findById(userDetails.getId()).orElse(null);
-        if (user == null) return ResponseEntity.status(401).build();
-        entry.setUser(user); // Set the user field
+        // References only: nothing is read before the service locks the vehicle and checks its owner, and
+        // another user's vehicle is rejected like a missing one
+        FuelEntry entry = toEntity(entryDto, vehicleRepository.getReferenceById(entryDto.getVehicleId()));
+        entry.setUser(userRepository.getReferenceById(userDetails.getId())); // Set the user field
         FuelEntry saved = fuelEntryService.addFuelEntry(entry);
         return ResponseEntity.ok(toDto(saved));
     }
 
+    @PutMapping("/{id}")
+    public ResponseEntity<FuelEntryResponseDto> updateEntry(@PathVariable Long id, @Valid @RequestBody FuelEntryRequestDto entryDto) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).build();
+        }
+        AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
+        // Only the id is compared with the entry's vehicle, so a reference is enough
+        FuelEntry changes = toEntity(entryDto, vehicleRepository.getReferenceById(entryDto.getVehicleId()));
+        return fuelEntryService.updateFuelEntry(userDetails.getId(), id, changes)
+                .map(saved -> ResponseEntity.ok(toDto(saved)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/history")
     public ResponseEntity<?> getHistory(
             @RequestParam(required = false) Long vehicleId,
@@ -76,13 +113,27 @@ public class FuelEntryController {
             @RequestParam(required = false) String station,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
-            @RequestParam(defaultValue = "0") int page) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            ServletWebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(401).build();
         }
         AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
         Long userId = userDetails.getId();
+        if (eTags.notModified(request, userId, vehicleId)) return null;
+        // A cursor or limit switches to seek pagination; page-number paging stays for existing clients
+        if (cursor != null || limit != null) {
+            int size = limit != null ? limit : 25;
+            FuelEntrySliceDto slice = fuelEntryService.getFilteredEntriesAfter(userId, vehicleId, brand, grade, station,
+                    startDate, endDate, cursor, size, includeTotal);
+            List<FuelEntryResponseDto> dtos = slice.getContent().stream().map(this::toDto).collect(Collectors.toList());
+            Integer totalPages = slice.getTotalElements() != null ? (int) Math.ceil((double) slice.getTotalElements() / size) : null;
+            return ResponseEntity.ok(new PaginatedResponse<>(dtos, totalPages, slice.getTotalElements(), slice.getNextCursor()));
+        }
         Page<FuelEntry> entries = fuelEntryService.getFilteredEntries(userId, vehicleId, brand, grade, station, startDate, endDate, page);
         List<FuelEntryResponseDto> dtos = entries.getContent().stream().map(this::toDto).collect(Collectors.toList());
         return ResponseEntity.ok(new PaginatedResponse<>(dtos, entries.getTotalPages(), entries.getTotalElements()));
@@ -93,15 +144,45 @@ public class FuelEntryController {
             @RequestParam(required = false) Long vehicleId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
-            @RequestParam(required = false, defaultValue = "metric") String units) {
+            @RequestParam(required = false, defaultValue = "metric") String units,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Integer maxPoints,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            ServletWebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(401).build();
         }
         AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
         Long userId = userDetails.getId();
+        boolean cbor = acceptsCbor(accept);
+        if (eTags.notModified(request, userId, vehicleId, cbor ? "cbor" : null)) return null;
         boolean imperialUnits = "imperial".equalsIgnoreCase(units);
-        DashboardResponseDto dashboard = fuelEntryService.getDashboardStats(userId, vehicleId, startDate, endDate, imperialUnits);
+        DashboardResponseDto dashboard = fuelEntryService.getDashboardStats(userId, vehicleId, startDate, endDate, imperialUnits,
+                cbor || "columnar".equalsIgnoreCase(format), maxPoints);
+        return ResponseEntity.ok(dashboard);
+    }
+
+    // All vehicles at once: combined totals plus one dashboard per vehicle
+    @GetMapping("/dashboard/vehicles")
+    public ResponseEntity<?> getFleetDashboard(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(required = false, defaultValue = "metric") String units,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            ServletWebRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).build();
+        }
+        AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
+        Long userId = userDetails.getId();
+        boolean cbor = acceptsCbor(accept);
+        if (eTags.notModified(request, userId, null, cbor ? "cbor" : null)) return null;
+        boolean imperialUnits = "imperial".equalsIgnoreCase(units);
+        FleetDashboardDto dashboard = fuelEntryService.getFleetDashboard(userId, startDate, endDate, imperialUnits,
+                cbor || "columnar".equalsIgnoreCase(format));
         return ResponseEntity.ok(dashboard);
     }
 
@@ -109,13 +190,15 @@ public class FuelEntryController {
     public ResponseEntity<?> getBrandGradeComparison(
             @RequestParam(required = false) Long vehicleId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            ServletWebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(401).build();
         }
         AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
         Long userId = userDetails.getId();
+        if (eTags.notModified(request, userId, vehicleId)) return null;
         List<BrandGradeComparisonDto> comparison = fuelEntryService.getBrandGradeComparison(userId, vehicleId, startDate, endDate);
         return ResponseEntity.ok(comparison);
     }
@@ -124,17 +207,68 @@ public class FuelEntryController {
     public ResponseEntity<?> getPerFillConsumption(
             @RequestParam(required = false) Long vehicleId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(required = false) Integer maxPoints,
+            ServletWebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(401).build();
         }
         AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
         Long userId = userDetails.getId();
-        List<FuelEntryPerFillDto> result = fuelEntryService.getPerFillConsumption(userId, vehicleId, startDate, endDate);
+        if (eTags.notModified(request, userId, vehicleId)) return null;
+        List<FuelEntryPerFillDto> result = fuelEntryService.getPerFillConsumption(userId, vehicleId, startDate, endDate, maxPoints);
         return ResponseEntity.ok(result);
     }
 
+    // Full history as a download, written while it is read; ?format=csv for spreadsheets
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEntries(
+            @RequestParam(required = false) Long vehicleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false, defaultValue = "metric") String units,
+            HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).build();
+        }
+        AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
+        Long userId = userDetails.getId();
+        FuelEntryExportService.Format exportFormat = FuelEntryExportService.Format.of(format);
+        boolean imperialUnits = "imperial".equalsIgnoreCase(units);
+        RequestLoadMetricsFilter.disableBuffering(request);
+        StreamingResponseBody body = out -> fuelEntryExportService.export(userId, vehicleId, startDate, endDate,
+                exportFormat, imperialUnits, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("fuel-history." + exportFormat.getExtension()).build().toString())
+                .body(body);
+    }
+
+    // Bulk upload of a CSV history, e.g. an earlier export; rows that fail validation are listed, the rest stored
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<FuelEntryImportResultDto> importEntries(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Long vehicleId) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).build();
+        }
+        AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(fuelEntryImportService.importCsv(userDetails.getId(), vehicleId, csv));
+        }
+    }
+
+    // A CBOR client gets columnar chart series without asking: the binary encoding is only offered for them
+    private static boolean acceptsCbor(String accept) {
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_CBOR::equalsTypeAndSubtype);
+    }
+
     private FuelEntryResponseDto toDto(FuelEntry entry) {
         FuelEntryResponseDto dto = new FuelEntryResponseDto();
         dto.setId(entry.getId());
@@ -168,20 +302,24 @@ public class FuelEntryController {
     public ResponseEntity<?> deleteEntry(@PathVariable Long id, HttpSession session) {
         Long userId = (Long) session.getAttribute("userId");
         if (userId == null) return ResponseEntity.status(401).build();
-        // Optionally check entry ownership
-        fuelEntryService.deleteEntry(id);
+        if (!fuelEntryService.deleteEntry(userId, id)) return ResponseEntity.notFound().build();
         return ResponseEntity.ok().build();
     }
 
     // Helper class for paginated response
     class PaginatedResponse<T> {
         public List<T> content;
-        public int totalPages;
-        public long totalElements;
-        public PaginatedResponse(List<T> content, int totalPages, long totalElements) {
+        public Integer totalPages;
+        public Long totalElements;
+        public String nextCursor;
+        public PaginatedResponse(List<T> content, Integer totalPages, Long totalElements) {
+            this(content, totalPages, totalElements, null);
+        }
+        public PaginatedResponse(List<T> content, Integer totalPages, Long totalElements, String nextCursor) {
             this.content = content;
             this.totalPages = totalPages;
             this.totalElements = totalElements;
+            this.nextCursor = nextCursor;
         }
     }
 }
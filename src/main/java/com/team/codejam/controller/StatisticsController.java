@@ -1,13 +1,18 @@
 package com.team.codejam.controller;
 
+import com.team.codejam.dto.StatisticsBundleDto;
 import com.team.codejam.entity.User;
+import com.team.codejam.mapper.VehicleMapper;
 import com.team.codejam.security.AppUserDetails;
+import com.team.codejam.service.FuelEntryService;
 import com.team.codejam.service.StatisticsService;
+import com.team.codejam.service.VehicleService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,9 +22,16 @@ import java.util.Map;
 @RequestMapping("/api/statistics")
 public class StatisticsController {
     private final StatisticsService statisticsService;
+    private final FuelEntryService fuelEntryService;
+    private final VehicleService vehicleService;
+    private final DataVersionETags eTags;
 
-    public StatisticsController(StatisticsService statisticsService) {
+    public StatisticsController(StatisticsService statisticsService, FuelEntryService fuelEntryService, VehicleService vehicleService,
+                                DataVersionETags eTags) {
         this.statisticsService = statisticsService;
+        this.fuelEntryService = fuelEntryService;
+        this.vehicleService = vehicleService;
+        this.eTags = eTags;
     }
 
     private Long getCurrentUserId() {
@@ -36,8 +48,9 @@ public class StatisticsController {
     }
 
     @GetMapping("/per-fill")
-    public List<Map<String, Object>> getPerFillMetrics(@RequestParam Long vehicleId) {
+    public List<Map<String, Object>> getPerFillMetrics(@RequestParam Long vehicleId, ServletWebRequest request) {
         Long userId = getCurrentUserId();
+        if (eTags.notModified(request, userId, vehicleId)) return null;
         return statisticsService.getPerFillMetrics(userId, vehicleId);
     }
 
@@ -45,44 +58,85 @@ public class StatisticsController {
     public Map<String, Object> getAggregates(
             @RequestParam Long vehicleId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            ServletWebRequest request) {
         Long userId = getCurrentUserId();
+        if (eTags.notModified(request, userId, vehicleId)) return null;
         return statisticsService.getAggregates(userId, vehicleId, from, to);
     }
 
+    @GetMapping("/compare")
+    public Map<String, Object> getPeriodComparison(
+            @RequestParam(required = false) Long vehicleId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            ServletWebRequest request) {
+        Long userId = getCurrentUserId();
+        if (eTags.notModified(request, userId, vehicleId)) return null;
+        return statisticsService.getPeriodComparison(userId, vehicleId, from, to);
+    }
+
     @GetMapping("/brand-grade")
-    public List<Map<String, Object>> getBrandGradeStats(@RequestParam Long vehicleId) {
+    public List<Map<String, Object>> getBrandGradeStats(@RequestParam Long vehicleId, ServletWebRequest request) {
         Long userId = getCurrentUserId();
+        if (eTags.notModified(request, userId, vehicleId)) return null;
         return statisticsService.getBrandGradeStats(userId, vehicleId);
     }
 
     @GetMapping("/user-aggregates")
     public Map<String, Object> getUserAggregates(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            ServletWebRequest request) {
         Long userId = getCurrentUserId();
+        if (eTags.notModified(request, userId, null)) return null;
         return statisticsService.getUserAggregates(userId, from, to);
     }
 
     @GetMapping("/monthly")
     public Map<String, Map<String, Object>> getMonthlyStats(
             @RequestParam Long vehicleId,
-            @RequestParam(required = false) Integer windowSizeDays) {
+            @RequestParam(required = false) Integer windowSizeDays,
+            ServletWebRequest request) {
         if (windowSizeDays == null) {
             windowSizeDays = 30; // default to last 30 days
         }
-        return statisticsService.getMonthlyStats(getCurrentUserId(), vehicleId, windowSizeDays);
+        Long userId = getCurrentUserId();
+        if (eTags.notModified(request, userId, vehicleId)) return null;
+        return statisticsService.getMonthlyStats(userId, vehicleId, windowSizeDays);
     }
 
     @GetMapping("/grade")
-    public List<Map<String, Object>> getGradeStats(HttpSession session, @RequestParam Long vehicleId) {
+    public List<Map<String, Object>> getGradeStats(HttpSession session, @RequestParam Long vehicleId, ServletWebRequest request) {
         Long userId = (Long) session.getAttribute("userId");
+        if (eTags.notModified(request, userId, vehicleId)) return null;
         return statisticsService.getGradeStats(vehicleId, userId);
     }
 
     @GetMapping("/dashboard")
-    public Map<String, Object> getDashboardSummary() {
+    public Map<String, Object> getDashboardSummary(ServletWebRequest request) {
         Long userId = getCurrentUserId();
+        if (eTags.notModified(request, userId, null)) return null;
         return statisticsService.getDashboardSummary(userId);
     }
+
+    // Everything the dashboard and statistics pages load for one vehicle selection and period, in one call
+    @GetMapping("/bundle")
+    public StatisticsBundleDto getBundle(
+            @RequestParam(required = false) Long vehicleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false, defaultValue = "metric") String units,
+            @RequestParam(required = false) Integer maxPoints,
+            ServletWebRequest request) {
+        Long userId = getCurrentUserId();
+        // Tagged with the user's version even for one vehicle, since the bundle also lists all vehicles
+        if (eTags.notModified(request, userId, null)) return null;
+        StatisticsBundleDto bundle = fuelEntryService.getStatisticsBundle(userId, vehicleId, startDate, endDate,
+                "imperial".equalsIgnoreCase(units), maxPoints);
+        // The cached bundle is shared; the vehicle list is added to a copy
+        return bundle.toBuilder()
+                .vehicles(vehicleService.getVehiclesForUser(userId).stream().map(VehicleMapper::toResponseDto).toList())
+                .build();
+    }
 }
@@ -5,13 +5,14 @@ import com.team.codejam.dto.UserSettingsUpdateRequestDto;
 import com.team.codejam.dto.VehicleDto;
 import com.team.codejam.entity.User;
 import com.team.codejam.repository.UserRepository;
+import com.team.codejam.service.UserService;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -19,12 +20,17 @@ import java.util.stream.Collectors;
 public class UserProfileController {
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private DataVersionETags eTags;
 
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(HttpSession session) {
+    public ResponseEntity<?> getProfile(HttpSession session, ServletWebRequest request) {
         Long userId = (Long) session.getAttribute("userId");
         if (userId == null) return ResponseEntity.status(401).build();
-        return userRepository.findById(userId)
+        if (eTags.notModified(request, userId, null)) return null;
+        return userRepository.findWithVehiclesById(userId)
                 .map(this::toUserProfileResponseDto)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -34,16 +40,10 @@ public class UserProfileController {
     public ResponseEntity<?> updateSettings(@Valid @RequestBody UserSettingsUpdateRequestDto payload, HttpSession session) {
         Long userId = (Long) session.getAttribute("userId");
         if (userId == null) return ResponseEntity.status(401).build();
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) return ResponseEntity.notFound().build();
-        User user = userOpt.get();
-        if (payload.getDisplayName() != null) user.setDisplayName(payload.getDisplayName());
-        if (payload.getCurrency() != null) user.setCurrency(payload.getCurrency());
-        if (payload.getDistanceUnit() != null) user.setDistanceUnit(payload.getDistanceUnit());
-        if (payload.getVolumeUnit() != null) user.setVolumeUnit(payload.getVolumeUnit());
-        if (payload.getTimeZone() != null) user.setTimeZone(payload.getTimeZone());
-        userRepository.save(user);
-        return ResponseEntity.ok(toUserProfileResponseDto(user));
+        return userService.updateSettings(userId, payload)
+                .map(this::toUserProfileResponseDto)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     private UserProfileResponseDto toUserProfileResponseDto(User user) {
@@ -4,6 +4,7 @@ import com.team.codejam.dto.VehicleRequestDto;
 import com.team.codejam.dto.VehicleResponseDto;
 import com.team.codejam.entity.User;
 import com.team.codejam.entity.Vehicle;
+import com.team.codejam.mapper.VehicleMapper;
 import com.team.codejam.repository.UserRepository;
 import com.team.codejam.service.VehicleService;
 import jakarta.servlet.http.HttpSession;
@@ -11,6 +12,7 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,12 +26,16 @@ public class VehicleController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DataVersionETags eTags;
+
     @GetMapping
-    public ResponseEntity<List<VehicleResponseDto>> getVehicles(HttpSession session) {
+    public ResponseEntity<List<VehicleResponseDto>> getVehicles(HttpSession session, ServletWebRequest request) {
         Long userId = (Long) session.getAttribute("userId");
         if (userId == null) return ResponseEntity.status(401).build();
+        if (eTags.notModified(request, userId, null)) return null;
         List<VehicleResponseDto> dtos = vehicleService.getVehiclesForUser(userId)
-            .stream().map(this::toDto).collect(Collectors.toList());
+            .stream().map(VehicleMapper::toResponseDto).collect(Collectors.toList());
         return ResponseEntity.ok(dtos);
     }
 
@@ -42,29 +48,17 @@ public class VehicleController {
         Vehicle vehicle = toEntity(vehicleDto);
         vehicle.setUser(user);
         Vehicle saved = vehicleService.addVehicle(vehicle);
-        return ResponseEntity.ok(toDto(saved));
+        return ResponseEntity.ok(VehicleMapper.toResponseDto(saved));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteVehicle(@PathVariable Long id, HttpSession session) {
         Long userId = (Long) session.getAttribute("userId");
         if (userId == null) return ResponseEntity.status(401).build();
-        // Optionally check ownership before delete
-        vehicleService.deleteVehicle(id);
+        if (!vehicleService.deleteVehicle(userId, id)) return ResponseEntity.notFound().build();
         return ResponseEntity.ok().build();
     }
 
-    private VehicleResponseDto toDto(Vehicle vehicle) {
-        VehicleResponseDto dto = new VehicleResponseDto();
-        dto.setId(vehicle.getId());
-        dto.setName(vehicle.getName());
-        dto.setMake(vehicle.getMake());
-        dto.setModel(vehicle.getModel());
-        dto.setYear(vehicle.getYear());
-        dto.setFuelType(vehicle.getFuelType());
-        return dto;
-    }
-
     private Vehicle toEntity(VehicleRequestDto dto) {
         Vehicle vehicle = new Vehicle();
         vehicle.setName(dto.getName());
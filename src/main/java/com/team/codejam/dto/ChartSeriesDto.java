@@ -0,0 +1,17 @@
+package com.team.codejam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Columnar chart series: point i is on day {@code epochDays[i]} (days since 1970-01-01) with
+ * {@code values[i]}. Points without a value are left out.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChartSeriesDto {
+    private int[] epochDays;
+    private double[] values;
+}
@@ -1,5 +1,6 @@
 package com.team.codejam.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 import lombok.AllArgsConstructor;
@@ -19,7 +20,14 @@ public class DashboardResponseDto {
     private Double avgConsumption;
     private Double avgCostPerKm;
     private Double avgDistancePerDay;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ChartPointDto> costPerLiterData;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ChartPointDto> consumptionData;
     private Double avgConsumptionImperial;
+    // Columnar form, sent in place of the two point lists above when the client asks for it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ChartSeriesDto costPerLiterSeries;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ChartSeriesDto consumptionSeries;
 }
@@ -0,0 +1,15 @@
+package com.team.codejam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FleetDashboardDto {
+    private DashboardResponseDto total;
+    private List<VehicleDashboardDto> vehicles;
+}
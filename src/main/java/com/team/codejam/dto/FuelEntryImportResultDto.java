@@ -0,0 +1,29 @@
+package com.team.codejam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import: how many rows were stored and why the others were not. Errors beyond the
+ * reported limit are only counted.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FuelEntryImportResultDto {
+    private int importedCount;
+    private int rejectedCount;
+    private List<RowError> errors;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        // Line of the file on which the rejected record starts; the header is line 1
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,32 @@
+package com.team.codejam.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Fuel entry columns plus the distance since the vehicle's previous fill,
+ * computed by the database with a window function.
+ */
+public interface FuelEntryPerFillView {
+    Long getId();
+
+    Long getVehicleId();
+
+    LocalDate getDate();
+
+    Integer getOdometer();
+
+    String getStationName();
+
+    String getFuelBrand();
+
+    String getFuelGrade();
+
+    Double getLiters();
+
+    Double getTotalAmount();
+
+    String getNotes();
+
+    // Null for the first fill of a vehicle
+    Integer getDistanceSinceLast();
+}
@@ -0,0 +1,25 @@
+package com.team.codejam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Scalar projection of the fuel entry columns needed for metrics and chart series.
+ * Loaded with a constructor expression, so no managed FuelEntry is created.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FuelEntryPointDto {
+    private Long vehicleId;
+    private LocalDate date;
+    private Integer odometer;
+    private Double liters;
+    private Double totalAmount;
+    private String fuelBrand;
+    private String fuelGrade;
+    private String stationName;
+}
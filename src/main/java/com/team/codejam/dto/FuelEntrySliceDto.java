@@ -0,0 +1,21 @@
+package com.team.codejam.dto;
+
+import com.team.codejam.entity.FuelEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a seek-paginated history: the entries, the token for the next slice (null on the
+ * last one) and the total count when it was requested.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FuelEntrySliceDto {
+    private List<FuelEntry> content;
+    private String nextCursor;
+    private Long totalElements;
+}
@@ -0,0 +1,19 @@
+package com.team.codejam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatisticsBundleDto {
+    private List<VehicleResponseDto> vehicles;
+    private DashboardResponseDto dashboard;
+    private List<FuelEntryPerFillDto> perFill;
+    private List<BrandGradeComparisonDto> brandGradeComparison;
+}
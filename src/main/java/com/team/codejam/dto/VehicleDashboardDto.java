@@ -0,0 +1,13 @@
+package com.team.codejam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleDashboardDto {
+    private Long vehicleId;
+    private DashboardResponseDto dashboard;
+}
@@ -0,0 +1,25 @@
+package com.team.codejam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Per-vehicle totals of the fuel entries in a date range, from the in-memory series, the rollup buckets or
+ * the database.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleTotalsDto {
+    private Long vehicleId;
+    private Long fillUpCount;
+    private Double totalLiters;
+    private Double totalSpend;
+    private Integer minOdometer;
+    private Integer maxOdometer;
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+}
@@ -0,0 +1,17 @@
+package com.team.codejam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A vehicle's owner and the data version bumped by every change to its fuel entries.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleVersionDto {
+    private Long vehicleId;
+    private Long userId;
+    private Long dataVersion;
+}
@@ -0,0 +1,11 @@
+package com.team.codejam.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+@Entity
+@Table(name = "fuel_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uq_fuel_daily_rollup", columnNames = {"vehicle_id", "bucket_date"}))
+public class DailyFuelRollup extends FuelRollup {
+}
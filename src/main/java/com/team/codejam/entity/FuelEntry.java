@@ -1,14 +1,19 @@
 package com.team.codejam.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "fuel_entries")
 public class FuelEntry {
+    // Pooled ids let Hibernate batch inserts; the column default hands JDBC inserts (CSV import, seed job)
+    // ids from the same sequence, one nextval and so one skipped block of 50 per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fuel_entries_seq")
+    @SequenceGenerator(name = "fuel_entries_seq", sequenceName = "fuel_entries_seq", allocationSize = 50)
+    @ColumnDefault("nextval('fuel_entries_seq')")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,43 @@
+package com.team.codejam.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated fuel entry totals of one vehicle for one time bucket.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+public abstract class FuelRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private double liters;
+
+    @Column(nullable = false)
+    private double spend;
+
+    @Column(name = "fill_count", nullable = false)
+    private int fillCount;
+
+    @Column(name = "min_odometer", nullable = false)
+    private int minOdometer;
+
+    @Column(name = "max_odometer", nullable = false)
+    private int maxOdometer;
+}
@@ -0,0 +1,14 @@
+package com.team.codejam.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Monthly bucket; {@code bucketDate} is the first day of the month.
+ */
+@Entity
+@Table(name = "fuel_monthly_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uq_fuel_monthly_rollup", columnNames = {"vehicle_id", "bucket_date"}))
+public class MonthlyFuelRollup extends FuelRollup {
+}
@@ -1,8 +1,10 @@
 package com.team.codejam.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Set;
 
@@ -11,7 +13,9 @@ import java.util.Set;
 @Data
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
+    @ColumnDefault("nextval('users_seq')")
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -30,4 +34,10 @@ public class User {
     @JsonManagedReference
     private Set<Vehicle> vehicles;
 
+    // Bumped only through UserRepository.bumpDataVersion, never written by entity saves
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "data_version", nullable = false, insertable = false, updatable = false)
+    private long dataVersion;
+
 }
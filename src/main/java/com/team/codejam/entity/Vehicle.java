@@ -2,6 +2,7 @@ package com.team.codejam.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Set;
 
@@ -9,7 +10,9 @@ import java.util.Set;
 @Table(name = "vehicles")
 public class Vehicle {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicles_seq")
+    @SequenceGenerator(name = "vehicles_seq", sequenceName = "vehicles_seq", allocationSize = 50)
+    @ColumnDefault("nextval('vehicles_seq')")
     private Long id;
 
     @Column(nullable = false)
@@ -28,6 +31,17 @@ public class Vehicle {
     @OneToMany(mappedBy = "vehicle", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<FuelEntry> fuelEntries;
 
+    // Bumped only through VehicleRepository.bumpDataVersion, never written by entity saves
+    @ColumnDefault("0")
+    @Column(name = "data_version", nullable = false, insertable = false, updatable = false)
+    private long dataVersion;
+
+    // Every write keeps the buckets of a new vehicle current; only vehicles older than the rollup tables
+    // start without them, until FuelRollupService.backfillVehicle sets the flag
+    @ColumnDefault("false")
+    @Column(name = "rollups_built", nullable = false, updatable = false)
+    private boolean rollupsBuilt = true;
+
     public Long getId() {
         return id;
     }
@@ -1,5 +1,6 @@
 package com.team.codejam.mapper;
 
+import com.team.codejam.dto.FuelEntryPerFillView;
 import com.team.codejam.dto.FuelEntryResponseDto;
 import com.team.codejam.entity.FuelEntry;
 
@@ -19,21 +20,43 @@ public class FuelEntryMapper {
         Double distanceSinceLast = null;
         if (prev != null && curr.getOdometer() != null && prev.getOdometer() != null)
             distanceSinceLast = (double) (curr.getOdometer() - prev.getOdometer());
+        setDerivedMetrics(dto, distanceSinceLast, imperialUnits);
+        return dto;
+    }
+
+    public static FuelEntryResponseDto toResponseDto(FuelEntryPerFillView view, boolean imperialUnits) {
+        FuelEntryResponseDto dto = new FuelEntryResponseDto();
+        dto.setId(view.getId());
+        dto.setVehicleId(view.getVehicleId());
+        dto.setDate(view.getDate());
+        dto.setOdometer(view.getOdometer());
+        dto.setStationName(view.getStationName());
+        dto.setFuelBrand(view.getFuelBrand());
+        dto.setFuelGrade(view.getFuelGrade());
+        dto.setLiters(view.getLiters());
+        dto.setTotalAmount(view.getTotalAmount());
+        dto.setNotes(view.getNotes());
+        setDerivedMetrics(dto, view.getDistanceSinceLast() != null ? view.getDistanceSinceLast().doubleValue() : null, imperialUnits);
+        return dto;
+    }
+
+    private static void setDerivedMetrics(FuelEntryResponseDto dto, Double distanceSinceLast, boolean imperialUnits) {
+        Double liters = dto.getLiters();
+        Double totalAmount = dto.getTotalAmount();
         dto.setDistanceSinceLast(distanceSinceLast != null ? (double) Math.round(distanceSinceLast) : null);
-        Double unitPrice = (curr.getLiters() != null && curr.getLiters() > 0 && curr.getTotalAmount() != null) ? curr.getTotalAmount() / curr.getLiters() : null;
+        Double unitPrice = (liters != null && liters > 0 && totalAmount != null) ? totalAmount / liters : null;
         dto.setUnitPrice(unitPrice != null ? round(unitPrice, 2) : null);
-        Double costPerKm = (distanceSinceLast != null && distanceSinceLast > 0 && curr.getTotalAmount() != null) ? curr.getTotalAmount() / distanceSinceLast : null;
+        Double costPerKm = (distanceSinceLast != null && distanceSinceLast > 0 && totalAmount != null) ? totalAmount / distanceSinceLast : null;
         dto.setCostPerKm(costPerKm != null ? round(costPerKm, 2) : null);
-        Double efficiencyMetric = (curr.getLiters() != null && distanceSinceLast != null && distanceSinceLast > 0) ? (curr.getLiters() / distanceSinceLast) * 100 : null;
+        Double efficiencyMetric = (liters != null && distanceSinceLast != null && distanceSinceLast > 0) ? (liters / distanceSinceLast) * 100 : null;
         dto.setEfficiencyMetric(efficiencyMetric != null ? round(efficiencyMetric, 1) : null);
         Double efficiencyImperial = null;
-        if (imperialUnits && curr.getLiters() != null && distanceSinceLast != null && distanceSinceLast > 0) {
+        if (imperialUnits && liters != null && distanceSinceLast != null && distanceSinceLast > 0) {
             double miles = distanceSinceLast * 0.621371;
-            double gallons = curr.getLiters() * 0.264172;
+            double gallons = liters * 0.264172;
             efficiencyImperial = gallons > 0 ? miles / gallons : null;
         }
         dto.setEfficiencyImperial(efficiencyImperial != null ? round(efficiencyImperial, 1) : null);
-        return dto;
     }
 
     private static double round(double value, int places) {
@@ -44,4 +67,3 @@ public class FuelEntryMapper {
         return (double) tmp / factor;
     }
 }
-
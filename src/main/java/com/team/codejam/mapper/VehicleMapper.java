@@ -0,0 +1,17 @@
+package com.team.codejam.mapper;
+
+import com.team.codejam.dto.VehicleResponseDto;
+import com.team.codejam.entity.Vehicle;
+
+public class VehicleMapper {
+    public static VehicleResponseDto toResponseDto(Vehicle vehicle) {
+        VehicleResponseDto dto = new VehicleResponseDto();
+        dto.setId(vehicle.getId());
+        dto.setName(vehicle.getName());
+        dto.setMake(vehicle.getMake());
+        dto.setModel(vehicle.getModel());
+        dto.setYear(vehicle.getYear());
+        dto.setFuelType(vehicle.getFuelType());
+        return dto;
+    }
+}
@@ -1,11 +1,22 @@
 package com.team.codejam.repository;
 
+import com.team.codejam.dto.FuelEntryPerFillView;
+import com.team.codejam.dto.FuelEntryPointDto;
+import com.team.codejam.dto.VehicleTotalsDto;
 import com.team.codejam.entity.FuelEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface FuelEntryRepository extends JpaRepository<FuelEntry, Long>, JpaSpecificationExecutor<FuelEntry> {
     List<FuelEntry> findByVehicleIdOrderByDateDesc(Long vehicleId);
@@ -19,4 +30,142 @@ public interface FuelEntryRepository extends JpaRepository<FuelEntry, Long>, Jpa
     List<FuelEntry> findByVehicleUserIdAndDateBetween(Long userId, LocalDate start, LocalDate end);
 
     List<FuelEntry> findByVehicleIdOrderByDateAsc(Long vehicleId);
+
+    // Totals, odometer bounds and date span per vehicle in one round trip; null filters are ignored
+    @Query("""
+            select new com.team.codejam.dto.VehicleTotalsDto(
+                e.vehicle.id, count(e), sum(e.liters), sum(e.totalAmount),
+                min(e.odometer), max(e.odometer), min(e.date), max(e.date))
+            from FuelEntry e
+            where e.user.id = :userId
+              and (:vehicleId is null or e.vehicle.id = :vehicleId)
+              and (:startDate is null or e.date >= :startDate)
+              and (:endDate is null or e.date <= :endDate)
+            group by e.vehicle.id
+            """)
+    List<VehicleTotalsDto> findVehicleTotals(@Param("userId") Long userId,
+                                             @Param("vehicleId") Long vehicleId,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    // Scalar rows for metrics and chart series, ordered by date; never hydrates FuelEntry entities
+    @Query("""
+            select new com.team.codejam.dto.FuelEntryPointDto(
+                e.vehicle.id, e.date, e.odometer, e.liters, e.totalAmount, e.fuelBrand, e.fuelGrade, e.stationName)
+            from FuelEntry e
+            where e.user.id = :userId
+              and (:vehicleId is null or e.vehicle.id = :vehicleId)
+              and (:startDate is null or e.date >= :startDate)
+              and (:endDate is null or e.date <= :endDate)
+            order by e.date asc, e.odometer asc
+            """)
+    List<FuelEntryPointDto> findChartPoints(@Param("userId") Long userId,
+                                            @Param("vehicleId") Long vehicleId,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+
+    // The same rows grouped by vehicle: each vehicle's fills form one contiguous run in (date, odometer) order
+    @Query("""
+            select new com.team.codejam.dto.FuelEntryPointDto(
+                e.vehicle.id, e.date, e.odometer, e.liters, e.totalAmount, e.fuelBrand, e.fuelGrade, e.stationName)
+            from FuelEntry e
+            where e.user.id = :userId
+              and (:vehicleId is null or e.vehicle.id = :vehicleId)
+              and (:startDate is null or e.date >= :startDate)
+              and (:endDate is null or e.date <= :endDate)
+            order by e.vehicle.id asc, e.date asc, e.odometer asc
+            """)
+    List<FuelEntryPointDto> findChartPointsByVehicle(@Param("userId") Long userId,
+                                                     @Param("vehicleId") Long vehicleId,
+                                                     @Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate);
+
+    // Full history of one vehicle in series order, regardless of owner
+    @Query("""
+            select new com.team.codejam.dto.FuelEntryPointDto(
+                e.vehicle.id, e.date, e.odometer, e.liters, e.totalAmount, e.fuelBrand, e.fuelGrade, e.stationName)
+            from FuelEntry e
+            where e.vehicle.id = :vehicleId
+            order by e.date asc, e.odometer asc
+            """)
+    List<FuelEntryPointDto> findSeriesPoints(@Param("vehicleId") Long vehicleId);
+
+    // Odometer of the latest fill strictly before the given date, or null for the vehicle's first day
+    @Query("""
+            select e.odometer from FuelEntry e
+            where e.vehicle.id = :vehicleId and e.date < :date
+            order by e.date desc, e.odometer desc
+            limit 1
+            """)
+    Integer findOdometerBefore(@Param("vehicleId") Long vehicleId, @Param("date") LocalDate date);
+
+    // Neighbours of a fill on the given date for odometer validation; each is one backward or forward step on the
+    // (vehicle_id, date, odometer) index. excludeId leaves out the entry being edited and may be null.
+    @Query("""
+            select e.odometer from FuelEntry e
+            where e.vehicle.id = :vehicleId and e.date <= :date
+              and (:excludeId is null or e.id <> :excludeId)
+            order by e.date desc, e.odometer desc
+            limit 1
+            """)
+    Integer findOdometerOnOrBefore(@Param("vehicleId") Long vehicleId, @Param("date") LocalDate date, @Param("excludeId") Long excludeId);
+
+    @Query("""
+            select e.odometer from FuelEntry e
+            where e.vehicle.id = :vehicleId and e.date > :date
+              and (:excludeId is null or e.id <> :excludeId)
+            order by e.date asc, e.odometer asc
+            limit 1
+            """)
+    Integer findOdometerAfter(@Param("vehicleId") Long vehicleId, @Param("date") LocalDate date, @Param("excludeId") Long excludeId);
+
+    // Whole history for export, read through a cursor in (date, odometer) order. Needs an open transaction;
+    // read-only entities skip the dirty-checking snapshot.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select e from FuelEntry e
+            where e.user.id = :userId
+              and (:vehicleId is null or e.vehicle.id = :vehicleId)
+              and (:startDate is null or e.date >= :startDate)
+              and (:endDate is null or e.date <= :endDate)
+            order by e.date asc, e.odometer asc, e.id asc
+            """)
+    Stream<FuelEntry> streamForExport(@Param("userId") Long userId,
+                                      @Param("vehicleId") Long vehicleId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
+
+    // Per-fill rows with the distance since the previous fill of the same vehicle. The window runs over the
+    // vehicle's whole history before the date filter, so the first row of a page or range still gets its distance.
+    @Query(value = """
+            select t.id as "id", t.vehicle_id as "vehicleId", t.date as "date", t.odometer as "odometer",
+                   t.station_name as "stationName", t.fuel_brand as "fuelBrand", t.fuel_grade as "fuelGrade",
+                   t.liters as "liters", t.total_amount as "totalAmount", t.notes as "notes",
+                   t.odometer - t.prev_odometer as "distanceSinceLast"
+            from (
+                select f.*, lag(f.odometer) over (partition by f.vehicle_id order by f.date, f.odometer) as prev_odometer
+                from fuel_entries f
+                where f.user_id = :userId
+                  and (cast(:vehicleId as bigint) is null or f.vehicle_id = :vehicleId)
+            ) t
+            where (cast(:startDate as date) is null or t.date >= :startDate)
+              and (cast(:endDate as date) is null or t.date <= :endDate)
+            order by t.date, t.odometer, t.id
+            """,
+            countQuery = """
+                    select count(*) from fuel_entries f
+                    where f.user_id = :userId
+                      and (cast(:vehicleId as bigint) is null or f.vehicle_id = :vehicleId)
+                      and (cast(:startDate as date) is null or f.date >= :startDate)
+                      and (cast(:endDate as date) is null or f.date <= :endDate)
+                    """,
+            nativeQuery = true)
+    Page<FuelEntryPerFillView> findPerFill(@Param("userId") Long userId,
+                                           @Param("vehicleId") Long vehicleId,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate,
+                                           Pageable pageable);
 }
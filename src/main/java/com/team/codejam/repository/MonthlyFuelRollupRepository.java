@@ -0,0 +1,23 @@
+package com.team.codejam.repository;
+
+import com.team.codejam.entity.MonthlyFuelRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface MonthlyFuelRollupRepository extends JpaRepository<MonthlyFuelRollup, Long> {
+    Optional<MonthlyFuelRollup> findByVehicleIdAndBucketDate(Long vehicleId, LocalDate bucketDate);
+
+    List<MonthlyFuelRollup> findByUserIdAndVehicleIdAndBucketDateBetween(Long userId, Long vehicleId, LocalDate from, LocalDate to);
+
+    List<MonthlyFuelRollup> findByUserIdAndBucketDateBetween(Long userId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("delete from MonthlyFuelRollup r where r.vehicleId = :vehicleId")
+    void deleteByVehicleId(@Param("vehicleId") Long vehicleId);
+}
@@ -1,7 +1,11 @@
 package com.team.codejam.repository;
 
 import com.team.codejam.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -9,4 +13,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // Profile view: the user and their vehicles in one query instead of a lazy load of the set
+    @EntityGraph(attributePaths = "vehicles")
+    Optional<User> findWithVehiclesById(Long id);
+
+    @Query("select u.dataVersion from User u where u.id = :userId")
+    Long findDataVersion(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("update User u set u.dataVersion = u.dataVersion + 1 where u.id = :userId")
+    int bumpDataVersion(@Param("userId") Long userId);
 }
@@ -1,11 +1,54 @@
 package com.team.codejam.repository;
 
+import com.team.codejam.dto.VehicleVersionDto;
 import com.team.codejam.entity.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     List<Vehicle> findByUserId(Long userId);
-}
 
+    @Query("""
+            select new com.team.codejam.dto.VehicleVersionDto(v.id, v.user.id, v.dataVersion)
+            from Vehicle v
+            where v.user.id = :userId
+            order by v.id
+            """)
+    List<VehicleVersionDto> findVersionsByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            select new com.team.codejam.dto.VehicleVersionDto(v.id, v.user.id, v.dataVersion)
+            from Vehicle v
+            where v.id = :vehicleId and v.user.id = :userId
+            """)
+    Optional<VehicleVersionDto> findVersion(@Param("vehicleId") Long vehicleId, @Param("userId") Long userId);
+
+    // Vehicles older than the rollup tables whose buckets have not been backfilled yet
+    @Query("""
+            select new com.team.codejam.dto.VehicleVersionDto(v.id, v.user.id, v.dataVersion)
+            from Vehicle v
+            where v.rollupsBuilt = false
+            order by v.id
+            """)
+    List<VehicleVersionDto> findWithoutRollups();
+
+    @Modifying
+    @Query("update Vehicle v set v.rollupsBuilt = true where v.id = :vehicleId")
+    int markRollupsBuilt(@Param("vehicleId") Long vehicleId);
+
+    @Query("select v.dataVersion from Vehicle v where v.id = :vehicleId")
+    Long findDataVersion(@Param("vehicleId") Long vehicleId);
+
+    // Row lock held until the transaction ends; serializes writers of one vehicle across nodes
+    @Query(value = "select id from vehicles where id = :vehicleId for update", nativeQuery = true)
+    Long lockForUpdate(@Param("vehicleId") Long vehicleId);
+
+    @Modifying
+    @Query("update Vehicle v set v.dataVersion = v.dataVersion + 1 where v.id = :vehicleId")
+    int bumpDataVersion(@Param("vehicleId") Long vehicleId);
+}
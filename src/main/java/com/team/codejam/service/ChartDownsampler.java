@@ -0,0 +1,111 @@
+package com.team.codejam.service;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Picks which points of a long chart series to send. Both methods return ascending indices into a
+ * series of n points, always keep its first and last point, and read the series through accessors, so
+ * the only allocation is the returned index array.
+ */
+final class ChartDownsampler {
+    /** Smallest maxPoints: both ends plus one min/max pair. */
+    static final int MIN_POINTS = 4;
+
+    private ChartDownsampler() {
+    }
+
+    static void checkMaxPoints(Integer maxPoints) {
+        if (maxPoints != null && maxPoints < MIN_POINTS)
+            throw new IllegalArgumentException("maxPoints must be at least " + MIN_POINTS);
+    }
+
+    /**
+     * Rounds a cap down to one of four steps per power of two (..., 256, 320, 384, 448, 512, ...), so caps
+     * chosen freely by clients share a few cached results while each result stays within its cap.
+     */
+    static Integer roundMaxPoints(Integer maxPoints) {
+        if (maxPoints == null) return null;
+        int step = Math.max(1, Integer.highestOneBit(maxPoints) >> 2);
+        return Math.max(MIN_POINTS, maxPoints / step * step);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets: the points between the ends are split into maxPoints - 2 buckets,
+     * and each bucket keeps the point forming the largest triangle with the point kept before it and the
+     * average of the next bucket. Keeps the shape of the line; x must be ascending.
+     */
+    static int[] lttb(int n, IntToDoubleFunction x, IntToDoubleFunction y, int maxPoints) {
+        if (n <= maxPoints) return all(n);
+        int[] picked = new int[maxPoints];
+        double bucketSize = (double) (n - 2) / (maxPoints - 2);
+        int kept = 0;
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x.applyAsDouble(i);
+                avgY += y.applyAsDouble(i);
+            }
+            avgX /= nextEnd - nextStart;
+            avgY /= nextEnd - nextStart;
+
+            double keptX = x.applyAsDouble(kept);
+            double keptY = y.applyAsDouble(kept);
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = nextStart;
+            double largestArea = -1;
+            int largest = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle's area; only the comparison matters
+                double area = Math.abs((keptX - avgX) * (y.applyAsDouble(i) - keptY)
+                        - (keptX - x.applyAsDouble(i)) * (avgY - keptY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            picked[bucket + 1] = largest;
+            kept = largest;
+        }
+        picked[maxPoints - 1] = n - 1;
+        return picked;
+    }
+
+    /**
+     * Min/max buckets: the points between the ends are split into (maxPoints - 2) / 2 buckets of equal
+     * count, and each bucket keeps its lowest and highest point in their original order. Unlike LTTB no
+     * spike is ever dropped, which is what matters for consumption.
+     */
+    static int[] minMax(int n, IntToDoubleFunction y, int maxPoints) {
+        if (n <= maxPoints) return all(n);
+        int buckets = (maxPoints - 2) / 2;
+        int[] picked = new int[2 + 2 * buckets];
+        double bucketSize = (double) (n - 2) / buckets;
+        int count = 0;
+        picked[count++] = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = Math.min((int) ((bucket + 1) * bucketSize) + 1, n - 1);
+            int min = start;
+            int max = start;
+            for (int i = start + 1; i < end; i++) {
+                double value = y.applyAsDouble(i);
+                if (value < y.applyAsDouble(min)) min = i;
+                if (value > y.applyAsDouble(max)) max = i;
+            }
+            picked[count++] = Math.min(min, max);
+            if (min != max) picked[count++] = Math.max(min, max);
+        }
+        picked[count++] = n - 1;
+        return count == picked.length ? picked : Arrays.copyOf(picked, count);
+    }
+
+    private static int[] all(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) indices[i] = i;
+        return indices;
+    }
+}
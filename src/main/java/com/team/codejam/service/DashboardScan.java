@@ -0,0 +1,166 @@
+package com.team.codejam.service;
+
+import com.team.codejam.cache.VehicleSeries;
+import com.team.codejam.dto.ChartPointDto;
+import com.team.codejam.dto.ChartSeriesDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Dashboard metrics and chart points of fills within a range. A scan covers one vehicle, so its distances
+ * never mix odometers of different cars; scans of several vehicles are merged into combined totals with the
+ * chart points interleaved in (date, odometer) order.
+ */
+final class DashboardScan {
+    private final FuelMetricsAccumulator metrics;
+    private final List<Point> costPerLiter;
+    private final List<Point> consumption;
+
+    private DashboardScan(FuelMetricsAccumulator metrics, List<Point> costPerLiter, List<Point> consumption) {
+        this.metrics = metrics;
+        this.costPerLiter = costPerLiter;
+        this.consumption = consumption;
+    }
+
+    /**
+     * Scans the vehicle's fills within {@code [from, to]}; null bounds are open.
+     */
+    static DashboardScan of(VehicleSeries series, LocalDate from, LocalDate to) {
+        int start = series.lowerBound(from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE);
+        int end = series.upperBound(to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE);
+        FuelMetricsAccumulator metrics = new FuelMetricsAccumulator();
+        List<Point> costPerLiter = new ArrayList<>(end - start);
+        List<Point> consumption = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            int epochDay = series.epochDay(i);
+            int odometer = series.odometer(i);
+            double liters = series.liters(i);
+            double amount = series.amount(i);
+            int distance = metrics.add(series.getVehicleId(), epochDay, odometer, liters, amount);
+            costPerLiter.add(new Point(epochDay, odometer, liters > 0 ? amount / liters : Double.NaN));
+            if (distance != FuelMetrics.NO_DISTANCE) {
+                consumption.add(new Point(epochDay, odometer, distance > 0 ? (liters / distance) * 100 : Double.NaN));
+            }
+        }
+        return new DashboardScan(metrics, costPerLiter, consumption);
+    }
+
+    /**
+     * Combines scans of different vehicles; no scans give an empty result. On equal (date, odometer) the
+     * earlier scan's point comes first.
+     */
+    static DashboardScan merge(List<DashboardScan> scans) {
+        if (scans.size() == 1) return scans.getFirst();
+        FuelMetricsAccumulator metrics = new FuelMetricsAccumulator();
+        List<List<Point>> costPerLiter = new ArrayList<>(scans.size());
+        List<List<Point>> consumption = new ArrayList<>(scans.size());
+        for (DashboardScan scan : scans) {
+            metrics.merge(scan.metrics);
+            costPerLiter.add(scan.costPerLiter);
+            consumption.add(scan.consumption);
+        }
+        return new DashboardScan(metrics, interleave(costPerLiter), interleave(consumption));
+    }
+
+    /**
+     * The same scan with each chart series cut to at most maxPoints points: LTTB for the cost per liter line,
+     * min/max buckets for consumption. Points without a value are dropped first; the totals are unchanged.
+     */
+    DashboardScan downsample(int maxPoints) {
+        List<Point> costPoints = valued(costPerLiter);
+        List<Point> consumptionPoints = valued(consumption);
+        IntToDoubleFunction day = i -> costPoints.get(i).epochDay();
+        return new DashboardScan(metrics,
+                pick(costPoints, ChartDownsampler.lttb(costPoints.size(), day, i -> costPoints.get(i).value(), maxPoints)),
+                pick(consumptionPoints, ChartDownsampler.minMax(consumptionPoints.size(), i -> consumptionPoints.get(i).value(), maxPoints)));
+    }
+
+    boolean isEmpty() {
+        return costPerLiter.isEmpty();
+    }
+
+    FuelMetrics getTotal() {
+        return metrics.getTotal();
+    }
+
+    List<ChartPointDto> getCostPerLiterData() {
+        return chartPoints(costPerLiter);
+    }
+
+    List<ChartPointDto> getConsumptionData() {
+        return chartPoints(consumption);
+    }
+
+    ChartSeriesDto getCostPerLiterSeries() {
+        return chartSeries(costPerLiter);
+    }
+
+    ChartSeriesDto getConsumptionSeries() {
+        return chartSeries(consumption);
+    }
+
+    private static List<ChartPointDto> chartPoints(List<Point> points) {
+        List<ChartPointDto> chartPoints = new ArrayList<>(points.size());
+        for (Point point : points) {
+            chartPoints.add(ChartPointDto.builder()
+                    .date(LocalDate.ofEpochDay(point.epochDay()).toString())
+                    .value(Double.isNaN(point.value()) ? null : point.value())
+                    .build());
+        }
+        return chartPoints;
+    }
+
+    // No dates are formatted here; the client turns epoch days into dates only for what it draws
+    private static ChartSeriesDto chartSeries(List<Point> points) {
+        int[] epochDays = new int[points.size()];
+        double[] values = new double[points.size()];
+        int n = 0;
+        for (Point point : points) {
+            if (Double.isNaN(point.value())) continue;
+            epochDays[n] = point.epochDay();
+            values[n++] = point.value();
+        }
+        return n == points.size()
+                ? new ChartSeriesDto(epochDays, values)
+                : new ChartSeriesDto(Arrays.copyOf(epochDays, n), Arrays.copyOf(values, n));
+    }
+
+    private static List<Point> valued(List<Point> points) {
+        List<Point> valued = new ArrayList<>(points.size());
+        for (Point point : points) {
+            if (!Double.isNaN(point.value())) valued.add(point);
+        }
+        return valued;
+    }
+
+    private static List<Point> pick(List<Point> points, int[] indices) {
+        if (indices.length == points.size()) return points;
+        List<Point> picked = new ArrayList<>(indices.length);
+        for (int i : indices) picked.add(points.get(i));
+        return picked;
+    }
+
+    private static List<Point> interleave(List<List<Point>> runs) {
+        int k = runs.size();
+        int[] end = new int[k];
+        int total = 0;
+        for (int r = 0; r < k; r++) total += end[r] = runs.get(r).size();
+        List<Point> merged = new ArrayList<>(total);
+        SortedRunMerge.forEach(new int[k], end,
+                (r, i, s, j) -> runs.get(r).get(i).before(runs.get(s).get(j)),
+                (r, i) -> merged.add(runs.get(r).get(i)));
+        return merged;
+    }
+
+    // A NaN value is a point without one: a fill of no liters, or one with no distance driven since the last
+    private record Point(int epochDay, int odometer, double value) {
+        boolean before(Point other) {
+            if (epochDay != other.epochDay) return epochDay < other.epochDay;
+            return odometer < other.odometer;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.team.codejam.service;
+
+import com.team.codejam.dto.VehicleVersionDto;
+import com.team.codejam.repository.UserRepository;
+import com.team.codejam.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Version counters of the data behind statistics: one per vehicle for its fuel entries and one per
+ * user covering all of their vehicles. Bumps run inside the writing transaction, so a reader that
+ * sees the new version also sees the write.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+    private final VehicleRepository vehicleRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Marks a vehicle's entries, and so its owner's all-vehicle data, as changed.
+     *
+     * @return the vehicle's new version
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bumpVehicle(Long userId, Long vehicleId) {
+        vehicleRepository.bumpDataVersion(vehicleId);
+        userRepository.bumpDataVersion(userId);
+        return vehicleRepository.findDataVersion(vehicleId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bumpUser(Long userId) {
+        userRepository.bumpDataVersion(userId);
+    }
+
+    /**
+     * Version of one vehicle's data, or of all the user's vehicles when vehicleId is null.
+     * Null when the user does not own the vehicle.
+     */
+    public Long getVersion(Long userId, Long vehicleId) {
+        if (vehicleId == null) return userRepository.findDataVersion(userId);
+        return vehicleRepository.findVersion(vehicleId, userId).map(VehicleVersionDto::getDataVersion).orElse(null);
+    }
+}
@@ -0,0 +1,151 @@
+package com.team.codejam.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.team.codejam.dto.FuelEntryResponseDto;
+import com.team.codejam.entity.FuelEntry;
+import com.team.codejam.mapper.FuelEntryMapper;
+import com.team.codejam.repository.FuelEntryRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's fuel history as NDJSON or CSV while reading it, one row at a time from a database
+ * cursor, with the same per-fill columns as the history endpoints. Memory use does not depend on the
+ * number of rows: only the previous fill of each vehicle is kept, and loaded entries are dropped from the
+ * persistence context every {@value #DETACH_EVERY} rows.
+ */
+@Service
+@RequiredArgsConstructor
+public class FuelEntryExportService {
+    static final int DETACH_EVERY = 500;
+
+    private static final String[] CSV_COLUMNS = {"id", "vehicleId", "date", "odometer", "stationName", "fuelBrand",
+            "fuelGrade", "liters", "totalAmount", "notes", "distanceSinceLast", "unitPrice", "costPerKm",
+            "efficiencyMetric", "efficiencyImperial"};
+
+    private final FuelEntryRepository fuelEntryRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) return format;
+            }
+            throw new IllegalArgumentException("Unknown export format: " + name);
+        }
+    }
+
+    /**
+     * Streams the user's fills within {@code [startDate, endDate]} (null bounds are open) to out. The first
+     * fill of each vehicle in the range still gets its distance from the fill before the range.
+     */
+    @Transactional(readOnly = true)
+    public void export(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate, Format format,
+                       boolean imperialUnits, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rows = format == Format.CSV ? csv(writer) : ndjson(writer);
+        Map<Long, FuelEntry> previousByVehicle = new HashMap<>();
+        try (Stream<FuelEntry> entries = fuelEntryRepository.streamForExport(userId, vehicleId, startDate, endDate)) {
+            Iterator<FuelEntry> iterator = entries.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                FuelEntry entry = iterator.next();
+                Long entryVehicleId = entry.getVehicle().getId();
+                FuelEntry previous = previousByVehicle.containsKey(entryVehicleId)
+                        ? previousByVehicle.get(entryVehicleId)
+                        : fillBefore(entryVehicleId, startDate);
+                rows.write(FuelEntryMapper.toResponseDto(entry, previous, imperialUnits));
+                previousByVehicle.put(entryVehicleId, entry);
+                if (++count % DETACH_EVERY == 0) {
+                    // The kept previous fills only need their odometer, which detaching leaves readable
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    // Stand-in for the vehicle's last fill before the range, carrying only what the distance needs
+    private FuelEntry fillBefore(Long vehicleId, LocalDate startDate) {
+        if (startDate == null) return null;
+        Integer odometer = fuelEntryRepository.findOdometerBefore(vehicleId, startDate);
+        if (odometer == null) return null;
+        FuelEntry previous = new FuelEntry();
+        previous.setOdometer(odometer);
+        return previous;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(FuelEntryResponseDto row) throws IOException;
+    }
+
+    private RowWriter ndjson(Writer writer) {
+        ObjectWriter json = objectMapper.writerFor(FuelEntryResponseDto.class);
+        return row -> {
+            writer.write(json.writeValueAsString(row));
+            writer.write('\n');
+        };
+    }
+
+    private static RowWriter csv(Writer writer) throws IOException {
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write("\r\n");
+        return row -> {
+            Object[] values = {row.getId(), row.getVehicleId(), row.getDate(), row.getOdometer(), row.getStationName(),
+                    row.getFuelBrand(), row.getFuelGrade(), row.getLiters(), row.getTotalAmount(), row.getNotes(),
+                    row.getDistanceSinceLast(), row.getUnitPrice(), row.getCostPerKm(), row.getEfficiencyMetric(),
+                    row.getEfficiencyImperial()};
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                if (values[i] != null) writer.write(csvField(values[i].toString()));
+            }
+            writer.write("\r\n");
+        };
+    }
+
+    // RFC 4180: fields holding a separator, quote or line break are quoted, with quotes doubled
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,216 @@
+package com.team.codejam.service;
+
+import com.team.codejam.cache.StatsResultCache;
+import com.team.codejam.cache.VehicleSeriesStore;
+import com.team.codejam.dto.FuelEntryImportResultDto;
+import com.team.codejam.dto.FuelEntryImportResultDto.RowError;
+import com.team.codejam.dto.FuelEntryPointDto;
+import com.team.codejam.repository.FuelEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Imports fill-ups from CSV with a header row. The columns are matched by name, so a file written by the
+ * export reads back as is: vehicleId, date, odometer, stationName, fuelBrand, fuelGrade, liters,
+ * totalAmount and notes are used, any others are ignored.
+ * <p>
+ * Rows are checked like single entries, but the odometer check runs once per vehicle: its rows are sorted
+ * by (date, odometer) and merged with the stored history, so each stored fill is read once. The vehicles
+ * are locked for writing before the transaction that merges them opens, so the file is parsed without
+ * holding a connection. Rows that fail are reported by line and the rest are inserted in JDBC batches,
+ * all in that one transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class FuelEntryImportService {
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String[] REQUIRED_COLUMNS = {"date", "odometer", "stationName", "liters", "totalAmount"};
+    private static final int MAX_NOTES_LENGTH = 500;
+    private static final Comparator<Row> ROW_ORDER = Comparator.comparing(Row::date).thenComparingInt(Row::odometer);
+
+    private final FuelEntryRepository fuelEntryRepository;
+    private final FuelRollupService fuelRollupService;
+    private final VehicleWriteLocks vehicleWriteLocks;
+    private final DataVersionService dataVersionService;
+    private final VehicleSeriesStore seriesStore;
+    private final StatsResultCache statsResultCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${codejam.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${codejam.import.max-rows:100000}")
+    private int maxRows;
+
+    /**
+     * Imports the rows of csv into the user's vehicles. A non-null vehicleId puts every row on that
+     * vehicle and the file's vehicleId column is then ignored.
+     */
+    public FuelEntryImportResultDto importCsv(Long userId, Long vehicleId, InputStream csv) throws IOException {
+        // Read through JDBC: a query through the request's entity manager would keep its connection checked
+        // out while the file is parsed and the vehicles' locks are awaited
+        Set<Long> vehicleIds = new HashSet<>(
+                jdbcTemplate.queryForList("select id from vehicles where user_id = ?", Long.class, userId));
+        if (vehicleId != null && !vehicleIds.contains(vehicleId))
+            throw new IllegalArgumentException("Unknown vehicle: " + vehicleId);
+
+        List<RowError> errors = new ArrayList<>();
+        Map<Long, List<Row>> rowsByVehicle = new TreeMap<>();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+        Map<String, Integer> columns = columns(reader.next(), vehicleId == null);
+        int count = 0;
+        for (List<String> record; (record = reader.next()) != null; ) {
+            if (++count > maxRows)
+                throw new IllegalArgumentException("At most " + maxRows + " rows can be imported at once");
+            try {
+                Row row = toRow(reader.recordLine(), record, columns, vehicleId);
+                if (!vehicleIds.contains(row.vehicleId()))
+                    throw new IllegalArgumentException("Unknown vehicle: " + row.vehicleId());
+                rowsByVehicle.computeIfAbsent(row.vehicleId(), id -> new ArrayList<>()).add(row);
+            } catch (IllegalArgumentException e) {
+                errors.add(new RowError(reader.recordLine(), e.getMessage()));
+            }
+        }
+
+        return vehicleWriteLocks.inTransaction(rowsByVehicle.keySet(), () -> {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            int imported = 0;
+            List<Long> changed = new ArrayList<>();
+            for (Map.Entry<Long, List<Row>> vehicle : rowsByVehicle.entrySet()) {
+                List<Row> rows = vehicle.getValue();
+                rows.sort(ROW_ORDER);
+                int accepted = merge(userId, vehicle.getKey(), rows, batch, errors);
+                if (accepted > 0) changed.add(vehicle.getKey());
+                imported += accepted;
+            }
+            if (!batch.isEmpty()) flush(batch);
+
+            for (Long changedVehicleId : changed) {
+                fuelRollupService.rebuildVehicle(userId, changedVehicleId);
+                dataVersionService.bumpVehicle(userId, changedVehicleId);
+                seriesStore.evict(changedVehicleId);
+                statsResultCache.evict(userId, changedVehicleId);
+            }
+            errors.sort(Comparator.comparingLong(RowError::getLine));
+            return new FuelEntryImportResultDto(imported, errors.size(),
+                    new ArrayList<>(errors.subList(0, Math.min(errors.size(), MAX_REPORTED_ERRORS))));
+        });
+    }
+
+    // Walks the sorted rows and the stored history together; a row is kept when its odometer lies strictly
+    // between the fill before it (stored or kept earlier) and the next stored fill
+    private int merge(Long userId, Long vehicleId, List<Row> rows, List<Object[]> batch, List<RowError> errors) {
+        List<FuelEntryPointDto> stored = fuelEntryRepository.findSeriesPoints(vehicleId);
+        int next = 0;
+        Integer previous = null;
+        int accepted = 0;
+        for (Row row : rows) {
+            while (next < stored.size() && !isAfter(stored.get(next), row)) previous = stored.get(next++).getOdometer();
+            if (previous != null && row.odometer() <= previous) {
+                errors.add(new RowError(row.line(), "Odometer must be greater than previous entry for this vehicle"));
+            } else if (next < stored.size() && row.odometer() >= stored.get(next).getOdometer()) {
+                errors.add(new RowError(row.line(), "Odometer must be less than next entry for this vehicle"));
+            } else {
+                batch.add(new Object[]{vehicleId, userId, row.date(), row.odometer(), row.stationName(), row.fuelBrand(),
+                        row.fuelGrade(), row.liters(), row.totalAmount(), row.notes()});
+                if (batch.size() == batchSize) flush(batch);
+                previous = row.odometer();
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    // Stored fills on the row's own day come before it, as in single-entry validation; a re-imported fill
+    // is therefore rejected
+    private static boolean isAfter(FuelEntryPointDto stored, Row row) {
+        return stored.getDate().isAfter(row.date());
+    }
+
+    private void flush(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("""
+                insert into fuel_entries (vehicle_id, user_id, date, odometer, station_name, fuel_brand, fuel_grade,
+                                          liters, total_amount, notes)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, batch);
+        batch.clear();
+    }
+
+    // Column index by lower-case header name
+    private static Map<String, Integer> columns(List<String> header, boolean needsVehicleId) {
+        if (header == null) throw new IllegalArgumentException("The file is empty");
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            // Spreadsheet tools often save UTF-8 with a byte order mark
+            if (i == 0 && name.startsWith("\uFEFF")) name = name.substring(1);
+            columns.putIfAbsent(name.toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = new ArrayList<>();
+        if (needsVehicleId && !columns.containsKey("vehicleid")) missing.add("vehicleId");
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required.toLowerCase(Locale.ROOT))) missing.add(required);
+        }
+        if (!missing.isEmpty()) throw new IllegalArgumentException("Missing columns: " + String.join(", ", missing));
+        return columns;
+    }
+
+    private static Row toRow(long line, List<String> record, Map<String, Integer> columns, Long vehicleId) {
+        Long rowVehicleId = vehicleId != null ? vehicleId : parse(record, columns, "vehicleId", Long::valueOf);
+        if (rowVehicleId == null) throw new IllegalArgumentException("Vehicle is required");
+        LocalDate date = parse(record, columns, "date", LocalDate::parse);
+        Integer odometer = parse(record, columns, "odometer", Integer::valueOf);
+        Double liters = parse(record, columns, "liters", Double::valueOf);
+        Double totalAmount = parse(record, columns, "totalAmount", Double::valueOf);
+        FuelEntryService.validateFill(liters, totalAmount, odometer, date);
+        String stationName = value(record, columns, "stationName");
+        if (stationName == null) throw new IllegalArgumentException("Station name is required");
+        String notes = value(record, columns, "notes");
+        if (notes != null && notes.length() > MAX_NOTES_LENGTH)
+            throw new IllegalArgumentException("Notes must be at most " + MAX_NOTES_LENGTH + " characters");
+        return new Row(line, rowVehicleId, date, odometer, stationName, value(record, columns, "fuelBrand"),
+                value(record, columns, "fuelGrade"), liters, totalAmount, notes);
+    }
+
+    private static <T> T parse(List<String> record, Map<String, Integer> columns, String name, Function<String, T> parser) {
+        String value = value(record, columns, name);
+        if (value == null) return null;
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    // Trimmed field, or null when the column is absent or the field blank
+    private static String value(List<String> record, Map<String, Integer> columns, String name) {
+        Integer column = columns.get(name.toLowerCase(Locale.ROOT));
+        if (column == null || column >= record.size()) return null;
+        String value = record.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private record Row(long line, long vehicleId, LocalDate date, int odometer, String stationName, String fuelBrand,
+                       String fuelGrade, double liters, double totalAmount, String notes) {
+    }
+}
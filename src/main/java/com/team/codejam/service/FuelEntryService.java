@@ -1,39 +1,134 @@
 package com.team.codejam.service;
 
+import com.team.codejam.cache.StatsResultCache;
+import com.team.codejam.cache.VehicleSeries;
+import com.team.codejam.cache.VehicleSeriesStore;
 import com.team.codejam.dto.BrandGradeComparisonDto;
-import com.team.codejam.dto.ChartPointDto;
 import com.team.codejam.dto.DashboardResponseDto;
+import com.team.codejam.dto.FleetDashboardDto;
 import com.team.codejam.dto.FuelEntryPerFillDto;
+import com.team.codejam.dto.FuelEntryPerFillView;
+import com.team.codejam.dto.FuelEntryPointDto;
 import com.team.codejam.dto.FuelEntryResponseDto;
+import com.team.codejam.dto.FuelEntrySliceDto;
+import com.team.codejam.dto.StatisticsBundleDto;
+import com.team.codejam.dto.VehicleDashboardDto;
 import com.team.codejam.entity.FuelEntry;
 import com.team.codejam.mapper.FuelEntryMapper;
 import com.team.codejam.repository.FuelEntryRepository;
+import com.team.codejam.repository.VehicleRepository;
+import com.team.codejam.specification.FuelEntryCursor;
 import com.team.codejam.specification.FuelEntrySpecification;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
 public class FuelEntryService {
+    private static final int MAX_SLICE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final FuelEntryRepository fuelEntryRepository;
+    private final VehicleRepository vehicleRepository;
+    private final FuelRollupService fuelRollupService;
+    private final VehicleWriteLocks vehicleWriteLocks;
+    private final JdbcTemplate jdbcTemplate;
+    private final VehicleSeriesStore seriesStore;
+    private final DataVersionService dataVersionService;
+    private final StatsResultCache statsResultCache;
+    private final StageTimers stageTimers;
+    private final Executor applicationTaskExecutor;
 
+    /**
+     * Stores a new entry. Its vehicle and user may be bare references: the vehicle's owner is checked once
+     * the vehicle is locked.
+     */
     public FuelEntry addFuelEntry(FuelEntry entry) {
-        validateEntry(entry);
-        validateOdometer(entry);
-        return fuelEntryRepository.save(entry);
+        Long userId = entry.getUser().getId();
+        Long vehicleId = entry.getVehicle().getId();
+        return vehicleWriteLocks.inTransaction(vehicleId, () -> {
+            if (vehicleRepository.findVersion(vehicleId, userId).isEmpty())
+                throw new IllegalArgumentException("Unknown vehicle: " + vehicleId);
+            validateEntry(entry);
+            validateOdometer(entry);
+            FuelEntry saved = fuelEntryRepository.save(entry);
+            fuelRollupService.onEntryChanged(userId, vehicleId, saved.getDate());
+            seriesStore.onEntryAdded(saved, dataVersionService.bumpVehicle(userId, vehicleId));
+            statsResultCache.evict(userId, vehicleId);
+            return saved;
+        });
+    }
+
+    /**
+     * Replaces the fields of the user's entry with those of changes; empty if the user has no such entry.
+     * The entry stays on its vehicle, and its odometer is checked against its neighbours at the new date.
+     */
+    public Optional<FuelEntry> updateFuelEntry(Long userId, Long entryId, FuelEntry changes) {
+        // An entry cannot change vehicles, so the requested vehicle is the one to lock
+        Long vehicleId = changes.getVehicle().getId();
+        return vehicleWriteLocks.inTransaction(vehicleId, () -> {
+            FuelEntry entry = fuelEntryRepository.findById(entryId).orElse(null);
+            if (entry == null || !entry.getUser().getId().equals(userId)) return Optional.empty();
+            if (!vehicleId.equals(entry.getVehicle().getId()))
+                throw new IllegalArgumentException("An entry cannot be moved to another vehicle");
+            LocalDate oldDate = entry.getDate();
+            entry.setDate(changes.getDate());
+            entry.setOdometer(changes.getOdometer());
+            entry.setStationName(changes.getStationName());
+            entry.setFuelBrand(changes.getFuelBrand());
+            entry.setFuelGrade(changes.getFuelGrade());
+            entry.setLiters(changes.getLiters());
+            entry.setTotalAmount(changes.getTotalAmount());
+            entry.setNotes(changes.getNotes());
+            validateEntry(entry);
+            validateOdometer(entry);
+            FuelEntry saved = fuelEntryRepository.save(entry);
+            // Both the old and the new position lose or gain a fill
+            fuelRollupService.onEntryChanged(userId, vehicleId, oldDate);
+            fuelRollupService.onEntryChanged(userId, vehicleId, saved.getDate());
+            dataVersionService.bumpVehicle(userId, vehicleId);
+            seriesStore.evict(vehicleId);
+            statsResultCache.evict(userId, vehicleId);
+            return Optional.of(saved);
+        });
     }
 
-    public void deleteEntry(Long entryId) {
-        fuelEntryRepository.deleteById(entryId);
+    /**
+     * Deletes the user's entry; false if the user has no such entry.
+     */
+    public boolean deleteEntry(Long userId, Long entryId) {
+        // The vehicle to lock is looked up through JDBC: a query through the request's entity manager
+        // would keep its connection checked out while the lock is awaited
+        List<Long> vehicleIds = jdbcTemplate.queryForList(
+                "select vehicle_id from fuel_entries where id = ? and user_id = ?", Long.class, entryId, userId);
+        if (vehicleIds.isEmpty()) return false;
+        Long vehicleId = vehicleIds.getFirst();
+        return vehicleWriteLocks.inTransaction(vehicleId, () -> {
+            // Another writer may have deleted the entry while the lock was awaited
+            FuelEntry entry = fuelEntryRepository.findById(entryId).orElse(null);
+            if (entry == null) return false;
+            fuelEntryRepository.delete(entry);
+            fuelRollupService.onEntryChanged(userId, vehicleId, entry.getDate());
+            seriesStore.onEntryDeleted(entry, dataVersionService.bumpVehicle(userId, vehicleId));
+            statsResultCache.evict(userId, vehicleId);
+            return true;
+        });
     }
 
     public Page<FuelEntry> getFilteredEntries(Long userId, Long vehicleId, String brand, String grade, String station, LocalDate startDate, LocalDate endDate, int page) {
@@ -44,202 +139,380 @@ public class FuelEntryService {
         );
     }
 
-    public DashboardResponseDto getDashboardStats(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate, boolean imperialUnits) {
-        List<FuelEntry> entries = fuelEntryRepository.findAll(
-                FuelEntrySpecification.filter(vehicleId, null, null, null, startDate, endDate, userId),
-                Sort.by("date").ascending()
-        );
-        if (entries.isEmpty()) {
-            return DashboardResponseDto.builder()
-                    .totalDistance(0)
-                    .totalLiters(0)
-                    .totalSpend(0)
-                    .avgCostPerLiter(null)
-                    .avgConsumption(null)
-                    .avgConsumptionImperial(null)
-                    .avgCostPerKm(null)
-                    .avgDistancePerDay(null)
-                    .costPerLiterData(List.of())
-                    .consumptionData(List.of())
-                    .build();
+    /**
+     * Seek-paginated history in (date, id) order: each slice continues strictly after the cursor, so
+     * the cost does not grow with depth. The total is only counted on request.
+     */
+    public FuelEntrySliceDto getFilteredEntriesAfter(Long userId, Long vehicleId, String brand, String grade, String station,
+                                                      LocalDate startDate, LocalDate endDate, String cursor, int size, boolean includeTotal) {
+        if (size < 1 || size > MAX_SLICE_SIZE)
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SLICE_SIZE);
+        Specification<FuelEntry> filter = FuelEntrySpecification.filter(vehicleId, brand, grade, station, startDate, endDate, userId);
+        Specification<FuelEntry> seek = cursor != null && !cursor.isBlank()
+                ? filter.and(FuelEntrySpecification.after(FuelEntryCursor.decode(cursor)))
+                : filter;
+        // One extra row tells whether another slice follows without a count query
+        List<FuelEntry> rows = fuelEntryRepository.findBy(seek, query -> query
+                .sortBy(Sort.by("date", "id").ascending())
+                .limit(size + 1)
+                .all());
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            FuelEntry last = rows.getLast();
+            nextCursor = new FuelEntryCursor(last.getDate(), last.getId()).encode();
         }
-        double totalLiters = calculateTotalLiters(entries);
-        double totalSpend = calculateTotalSpend(entries);
-        List<ChartPointDto> costPerLiterData = calculateCostPerLiterData(entries);
-        ConsumptionResult consumptionResult = calculateConsumptionData(entries);
-        Double avgCostPerLiter = totalLiters > 0 ? totalSpend / totalLiters : null;
-        Double avgConsumption = consumptionResult.totalDistance > 0 ? (totalLiters / consumptionResult.totalDistance) * 100 : null;
-        Double avgCostPerKm = consumptionResult.totalDistance > 0 ? totalSpend / consumptionResult.totalDistance : null;
-        Double avgDistancePerDay = calculateAvgDistancePerDay(entries, consumptionResult.totalDistance);
-        Double avgConsumptionImperial = null;
-        if (imperialUnits && totalLiters > 0 && consumptionResult.totalDistance > 0) {
-            double miles = consumptionResult.totalDistance * 0.621371;
-            double gallons = totalLiters * 0.264172;
-            avgConsumptionImperial = gallons > 0 ? miles / gallons : null;
-            if (avgConsumptionImperial != null) avgConsumptionImperial = round(avgConsumptionImperial, 1);
-        }
-        return DashboardResponseDto.builder()
-                .totalDistance(consumptionResult.totalDistance)
-                .totalLiters(totalLiters)
-                .totalSpend(totalSpend)
-                .avgCostPerLiter(avgCostPerLiter)
-                .avgConsumption(avgConsumption)
-                .avgConsumptionImperial(avgConsumptionImperial)
-                .avgCostPerKm(avgCostPerKm)
-                .avgDistancePerDay(avgDistancePerDay)
-                .costPerLiterData(costPerLiterData)
-                .consumptionData(consumptionResult.consumptionData)
-                .build();
+        Long total = includeTotal ? fuelEntryRepository.count(filter) : null;
+        return new FuelEntrySliceDto(rows, nextCursor, total);
+    }
+
+    public DashboardResponseDto getDashboardStats(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate, boolean imperialUnits) {
+        return getDashboardStats(userId, vehicleId, startDate, endDate, imperialUnits, false, null);
+    }
+
+    /**
+     * Dashboard with the chart series either as date/value points or, when columnar, as parallel arrays of
+     * epoch days and values. A non-null maxPoints caps the length of each series.
+     */
+    public DashboardResponseDto getDashboardStats(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate, boolean imperialUnits,
+                                                  boolean columnar, Integer maxPoints) {
+        ChartDownsampler.checkMaxPoints(maxPoints);
+        String operation = columnar ? "dashboardSeries" : "dashboard";
+        Integer cap = ChartDownsampler.roundMaxPoints(maxPoints);
+        return statsResultCache.get(cacheName(operation, cap), userId, vehicleId, startDate, endDate, imperialUnits,
+                () -> computeDashboardStats(operation, userId, vehicleId, startDate, endDate, imperialUnits, columnar, cap));
     }
 
     public List<BrandGradeComparisonDto> getBrandGradeComparison(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate) {
-        List<FuelEntry> entries = fuelEntryRepository.findAll(
-                FuelEntrySpecification.filter(vehicleId, null, null, null, startDate, endDate, userId),
-                Sort.by("date").ascending()
-        );
-        if (entries.isEmpty()) return List.of();
-        return entries.stream()
-                .collect(java.util.stream.Collectors.groupingBy(e -> e.getFuelBrand() + "|" + e.getFuelGrade()))
-                .entrySet().stream()
+        return statsResultCache.get("brandGradeComparison", userId, vehicleId, startDate, endDate, false,
+                () -> computeBrandGradeComparison(userId, vehicleId, startDate, endDate));
+    }
+
+    /**
+     * Dashboard cards and chart series, per-fill consumption and the brand/grade comparison for one range,
+     * computed from a single read of the fills. The sections only read the loaded series, so they run
+     * concurrently.
+     */
+    public StatisticsBundleDto getStatisticsBundle(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate, boolean imperialUnits,
+                                                   Integer maxPoints) {
+        ChartDownsampler.checkMaxPoints(maxPoints);
+        Integer cap = ChartDownsampler.roundMaxPoints(maxPoints);
+        return statsResultCache.get(cacheName("bundle", cap), userId, vehicleId, startDate, endDate, imperialUnits,
+                () -> computeStatisticsBundle(userId, vehicleId, startDate, endDate, imperialUnits, cap));
+    }
+
+    /**
+     * All-vehicle dashboard: the combined cards and chart series plus a dashboard per vehicle with fills in
+     * the range, all from one read of the user's fills.
+     */
+    public FleetDashboardDto getFleetDashboard(Long userId, LocalDate startDate, LocalDate endDate, boolean imperialUnits, boolean columnar) {
+        String operation = columnar ? "fleetDashboardSeries" : "fleetDashboard";
+        return statsResultCache.get(operation, userId, null, startDate, endDate, imperialUnits, () -> {
+            List<VehicleSeries> series = stageTimers.time(operation, StageTimers.LOAD,
+                    () -> loadSeries(userId, null, startDate, endDate));
+            List<DashboardScan> scans = scanVehicles(operation, series, startDate, endDate);
+            return stageTimers.time(operation, StageTimers.MAP, () -> {
+                List<VehicleDashboardDto> vehicles = new ArrayList<>(scans.size());
+                for (int i = 0; i < scans.size(); i++) {
+                    if (scans.get(i).isEmpty()) continue;
+                    vehicles.add(new VehicleDashboardDto(series.get(i).getVehicleId(), buildDashboard(scans.get(i), imperialUnits, columnar)));
+                }
+                return new FleetDashboardDto(buildDashboard(DashboardScan.merge(scans), imperialUnits, columnar), vehicles);
+            });
+        });
+    }
+
+    private DashboardResponseDto computeDashboardStats(String operation, Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate,
+                                                       boolean imperialUnits, boolean columnar, Integer maxPoints) {
+        List<VehicleSeries> series = stageTimers.time(operation, StageTimers.LOAD,
+                () -> loadSeries(userId, vehicleId, startDate, endDate));
+        return computeDashboardStats(operation, series, startDate, endDate, imperialUnits, columnar, maxPoints);
+    }
+
+    // Downsampled results are cached per rounded cap; the stage timers keep one operation name
+    private static String cacheName(String operation, Integer maxPoints) {
+        return maxPoints != null ? operation + ":" + maxPoints : operation;
+    }
+
+    private List<BrandGradeComparisonDto> computeBrandGradeComparison(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        return computeBrandGradeComparison("brandGradeComparison",
+                consumer -> forEachFill("brandGradeComparison", userId, vehicleId, startDate, endDate, consumer));
+    }
+
+    private StatisticsBundleDto computeStatisticsBundle(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate, boolean imperialUnits,
+                                                        Integer maxPoints) {
+        // Per-fill distances start from the fill before the range, so histories are loaded from their beginning
+        List<VehicleSeries> series = stageTimers.time("bundle", StageTimers.LOAD, () -> loadSeries(userId, vehicleId, null, endDate));
+        CompletableFuture<DashboardResponseDto> dashboard = CompletableFuture.supplyAsync(
+                () -> computeDashboardStats("bundle.dashboard", series, startDate, endDate, imperialUnits, false, maxPoints), applicationTaskExecutor);
+        CompletableFuture<List<BrandGradeComparisonDto>> comparison = CompletableFuture.supplyAsync(() -> computeBrandGradeComparison("bundle.brandGradeComparison",
+                consumer -> forEachInSeries("bundle.brandGradeComparison", series, startDate, endDate, consumer)), applicationTaskExecutor);
+        List<FuelEntryPerFillDto> perFill = stageTimers.time("bundle.perFill", StageTimers.AGGREGATE,
+                () -> downsample(perFillConsumption(series, startDate, endDate), maxPoints));
+        return StatisticsBundleDto.builder()
+                .dashboard(dashboard.join())
+                .perFill(perFill)
+                .brandGradeComparison(comparison.join())
+                .build();
+    }
+
+    private DashboardResponseDto computeDashboardStats(String operation, List<VehicleSeries> series, LocalDate startDate, LocalDate endDate,
+                                                       boolean imperialUnits, boolean columnar, Integer maxPoints) {
+        DashboardScan combined = DashboardScan.merge(scanVehicles(operation, series, startDate, endDate));
+        return stageTimers.time(operation, StageTimers.MAP,
+                () -> buildDashboard(maxPoints != null ? combined.downsample(maxPoints) : combined, imperialUnits, columnar));
+    }
+
+    // One scan per vehicle, forked onto the application executor and merged in series order. The calling
+    // thread claims scans as well and only waits for scans another thread has started: it may itself be an
+    // executor task (the bundle's dashboard), and waiting on scans queued behind it could stall a bounded pool.
+    private List<DashboardScan> scanVehicles(String operation, List<VehicleSeries> series, LocalDate startDate, LocalDate endDate) {
+        return stageTimers.time(operation, StageTimers.AGGREGATE, () -> {
+            int n = series.size();
+            List<CompletableFuture<DashboardScan>> scans = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) scans.add(new CompletableFuture<>());
+            AtomicInteger nextScan = new AtomicInteger();
+            Runnable worker = () -> {
+                for (int i; (i = nextScan.getAndIncrement()) < n; ) {
+                    try {
+                        scans.get(i).complete(DashboardScan.of(series.get(i), startDate, endDate));
+                    } catch (Throwable e) {
+                        scans.get(i).completeExceptionally(e);
+                    }
+                }
+            };
+            for (int i = 1; i < n; i++) applicationTaskExecutor.execute(worker);
+            worker.run();
+            return scans.stream().map(CompletableFuture::join).toList();
+        });
+    }
+
+    private List<BrandGradeComparisonDto> computeBrandGradeComparison(String operation, Fills fills) {
+        // Each fill is credited with the distance since its vehicle's previous fill, whatever that fill's brand
+        FuelMetricsAccumulator vehicles = new FuelMetricsAccumulator();
+        Map<String, FuelMetrics> groups = new LinkedHashMap<>();
+        fills.forEach((fillVehicleId, epochDay, odometer, liters, amount, brand, grade) -> {
+            int distance = vehicles.add(fillVehicleId, epochDay, odometer, liters, amount);
+            groups.computeIfAbsent(brand + "|" + grade, key -> new FuelMetrics())
+                    .addFill(epochDay, odometer, liters, amount, distance);
+        });
+        return stageTimers.time(operation, StageTimers.MAP, () -> groups.entrySet().stream()
                 .map(entry -> buildBrandGradeComparison(entry.getKey(), entry.getValue()))
-                .toList();
+                .toList());
+    }
+
+    // Same rows as getPerFillConsumption: the distance reaches back to the vehicle's fill before the range
+    private static List<FuelEntryPerFillDto> perFillConsumption(List<VehicleSeries> series, LocalDate startDate, LocalDate endDate) {
+        List<FuelEntryPerFillDto> result = new ArrayList<>();
+        forEachInDateOrder(series, startDate, endDate, (snapshot, i) -> {
+            if (i == 0) return;
+            int distance = snapshot.odometer(i) - snapshot.odometer(i - 1);
+            result.add(FuelEntryPerFillDto.builder()
+                    .date(LocalDate.ofEpochDay(snapshot.epochDay(i)).toString())
+                    .consumptionLPer100km(distance > 0 ? (snapshot.liters(i) / distance) * 100 : null)
+                    .build());
+        });
+        return result;
+    }
+
+    public List<FuelEntryPerFillDto> getPerFillConsumption(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate, Integer maxPoints) {
+        ChartDownsampler.checkMaxPoints(maxPoints);
+        return downsample(getPerFillConsumption(userId, vehicleId, startDate, endDate), maxPoints);
     }
 
     public List<FuelEntryPerFillDto> getPerFillConsumption(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate) {
-        List<FuelEntry> entries = fuelEntryRepository.findAll(
-                FuelEntrySpecification.filter(vehicleId, null, null, null, startDate, endDate, userId),
-                Sort.by("date").ascending()
-        );
         List<FuelEntryPerFillDto> result = new ArrayList<>();
-        for (int i = 1; i < entries.size(); i++) {
-            FuelEntry prev = entries.get(i - 1);
-            FuelEntry curr = entries.get(i);
-            double distance = curr.getOdometer() - prev.getOdometer();
-            Double consumption = (curr.getLiters() != null && distance > 0) ? (curr.getLiters() / distance) * 100 : null;
+        for (FuelEntryPerFillView view : fuelEntryRepository.findPerFill(userId, vehicleId, startDate, endDate, Pageable.unpaged())) {
+            if (view.getDistanceSinceLast() == null) continue;
+            double distance = view.getDistanceSinceLast();
+            Double consumption = (view.getLiters() != null && distance > 0) ? (view.getLiters() / distance) * 100 : null;
             result.add(FuelEntryPerFillDto.builder()
-                    .date(curr.getDate().toString())
+                    .date(view.getDate().toString())
                     .consumptionLPer100km(consumption)
                     .build());
         }
         return result;
     }
 
+    // Min/max buckets, like the dashboard's consumption line; fills without a value are dropped first
+    private static List<FuelEntryPerFillDto> downsample(List<FuelEntryPerFillDto> rows, Integer maxPoints) {
+        if (maxPoints == null) return rows;
+        List<FuelEntryPerFillDto> valued = rows.stream().filter(row -> row.getConsumptionLPer100km() != null).toList();
+        int[] picked = ChartDownsampler.minMax(valued.size(), i -> valued.get(i).getConsumptionLPer100km(), maxPoints);
+        List<FuelEntryPerFillDto> result = new ArrayList<>(picked.length);
+        for (int i : picked) result.add(valued.get(i));
+        return result;
+    }
+
     public List<FuelEntryResponseDto> getPerFillMetricsForVehicle(Long userId, Long vehicleId, boolean imperialUnits) {
-        List<FuelEntry> entries = fuelEntryRepository.findAll(
-                FuelEntrySpecification.filter(vehicleId, null, null, null, null, null, userId),
-                Sort.by("date").ascending()
-        );
-        List<FuelEntryResponseDto> result = new ArrayList<>();
-        FuelEntry prev = null;
-        for (FuelEntry curr : entries) {
-            FuelEntryResponseDto dto = FuelEntryMapper.toResponseDto(curr, prev, imperialUnits);
-            result.add(dto);
-            prev = curr;
+        return fuelEntryRepository.findPerFill(userId, vehicleId, null, null, Pageable.unpaged())
+                .map(view -> FuelEntryMapper.toResponseDto(view, imperialUnits))
+                .getContent();
+    }
+
+    public Page<FuelEntryResponseDto> getPerFillMetricsPage(Long userId, Long vehicleId, boolean imperialUnits, int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        return fuelEntryRepository.findPerFill(userId, vehicleId, null, null, PageRequest.of(page, size))
+                .map(view -> FuelEntryMapper.toResponseDto(view, imperialUnits));
+    }
+
+    // Feeds the fills of the range in (date, odometer) order, from the in-memory series when enabled.
+    // Fetching is timed as the operation's load stage and the consumer's work as its aggregate stage.
+    private void forEachFill(String operation, Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate, FillConsumer consumer) {
+        if (seriesStore.isEnabled()) {
+            List<VehicleSeries> series = stageTimers.time(operation, StageTimers.LOAD, () -> seriesStore.getSeries(userId, vehicleId));
+            forEachInSeries(operation, series, startDate, endDate, consumer);
+            return;
         }
-        return result;
+        List<FuelEntryPointDto> points = stageTimers.time(operation, StageTimers.LOAD,
+                () -> fuelEntryRepository.findChartPoints(userId, vehicleId, startDate, endDate));
+        stageTimers.run(operation, StageTimers.AGGREGATE, () -> {
+            for (FuelEntryPointDto point : points) {
+                consumer.accept(point.getVehicleId(), point.getDate().toEpochDay(), point.getOdometer(),
+                        point.getLiters(), point.getTotalAmount(), point.getFuelBrand(), point.getFuelGrade());
+            }
+        });
+    }
+
+    private void forEachInSeries(String operation, List<VehicleSeries> series, LocalDate startDate, LocalDate endDate, FillConsumer consumer) {
+        stageTimers.run(operation, StageTimers.AGGREGATE, () -> forEachInDateOrder(series, startDate, endDate,
+                (snapshot, i) -> consumer.accept(snapshot.getVehicleId(), snapshot.epochDay(i), snapshot.odometer(i),
+                        snapshot.liters(i), snapshot.amount(i), snapshot.brand(i), snapshot.grade(i))));
+    }
+
+    // Visits the fills of all series within [from, to] in (date, odometer) order
+    private static void forEachInDateOrder(List<VehicleSeries> series, LocalDate from, LocalDate to, SeriesVisitor visitor) {
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        int k = series.size();
+        int[] next = new int[k];
+        int[] end = new int[k];
+        for (int s = 0; s < k; s++) {
+            next[s] = series.get(s).lowerBound(fromDay);
+            end[s] = series.get(s).upperBound(toDay);
+        }
+        SortedRunMerge.forEach(next, end,
+                (s, i, t, j) -> before(series.get(s), i, series.get(t), j),
+                (s, i) -> visitor.visit(series.get(s), i));
+    }
+
+    private static boolean before(VehicleSeries a, int i, VehicleSeries b, int j) {
+        if (a.epochDay(i) != b.epochDay(j)) return a.epochDay(i) < b.epochDay(j);
+        return a.odometer(i) < b.odometer(j);
+    }
+
+    // One series per vehicle: the whole in-memory series when enabled, else the range's fills from one query
+    // ordered by vehicle, where each vehicle's fills form a contiguous run
+    private List<VehicleSeries> loadSeries(Long userId, Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        if (seriesStore.isEnabled()) return seriesStore.getSeries(userId, vehicleId);
+        List<FuelEntryPointDto> points = fuelEntryRepository.findChartPointsByVehicle(userId, vehicleId, startDate, endDate);
+        List<VehicleSeries> series = new ArrayList<>();
+        for (int start = 0, end; start < points.size(); start = end) {
+            Long runVehicleId = points.get(start).getVehicleId();
+            end = start + 1;
+            while (end < points.size() && points.get(end).getVehicleId().equals(runVehicleId)) end++;
+            series.add(VehicleSeries.of(runVehicleId, userId, 0, points.subList(start, end)));
+        }
+        return series;
     }
 
     private void validateEntry(FuelEntry entry) {
-        if (entry.getLiters() == null || entry.getLiters() <= 0)
+        validateFill(entry.getLiters(), entry.getTotalAmount(), entry.getOdometer(), entry.getDate());
+    }
+
+    // Shared with the CSV import, which checks rows before any entity exists
+    static void validateFill(Double liters, Double totalAmount, Integer odometer, LocalDate date) {
+        if (liters == null || liters <= 0)
             throw new IllegalArgumentException("Liters must be positive");
-        if (entry.getTotalAmount() == null || entry.getTotalAmount() <= 0)
+        if (totalAmount == null || totalAmount <= 0)
             throw new IllegalArgumentException("Total amount must be positive");
-        if (entry.getOdometer() == null || entry.getOdometer() <= 0)
+        if (odometer == null || odometer <= 0)
             throw new IllegalArgumentException("Odometer must be positive");
-        if (entry.getDate() == null || entry.getDate().isAfter(LocalDate.now()))
+        if (date == null || date.isAfter(LocalDate.now()))
             throw new IllegalArgumentException("Date must not be in the future");
     }
 
+    // Only the entry's two neighbours are read, so the cost does not grow with the vehicle's history.
+    // Fills on the same day count as before it; an edited entry is left out of its own neighbourhood.
     private void validateOdometer(FuelEntry entry) {
-        List<FuelEntry> entries = fuelEntryRepository.findByVehicleIdOrderByDateDesc(entry.getVehicle().getId());
-        if (!entries.isEmpty()) {
-            FuelEntry latest = entries.getFirst();
-            if (entry.getDate().isAfter(latest.getDate()) || entry.getDate().isEqual(latest.getDate())) {
-                if (entry.getOdometer() <= latest.getOdometer())
-                    throw new IllegalArgumentException("Odometer must be greater than previous entry for this vehicle");
-            } else {
-                for (int i = 0; i < entries.size(); i++) {
-                    FuelEntry e = entries.get(i);
-                    if (e.getDate().isBefore(entry.getDate())) {
-                        if (entry.getOdometer() <= e.getOdometer())
-                            throw new IllegalArgumentException("Odometer must be greater than previous entry for this vehicle");
-                        if (i > 0 && entry.getOdometer() >= entries.get(i - 1).getOdometer())
-                            throw new IllegalArgumentException("Odometer must be less than next entry for this vehicle");
-                        break;
-                    }
-                }
-            }
-        }
+        Long vehicleId = entry.getVehicle().getId();
+        Integer previous = fuelEntryRepository.findOdometerOnOrBefore(vehicleId, entry.getDate(), entry.getId());
+        if (previous != null && entry.getOdometer() <= previous)
+            throw new IllegalArgumentException("Odometer must be greater than previous entry for this vehicle");
+        Integer next = fuelEntryRepository.findOdometerAfter(vehicleId, entry.getDate(), entry.getId());
+        if (next != null && entry.getOdometer() >= next)
+            throw new IllegalArgumentException("Odometer must be less than next entry for this vehicle");
     }
 
-    private BrandGradeComparisonDto buildBrandGradeComparison(String key, List<FuelEntry> group) {
+    private BrandGradeComparisonDto buildBrandGradeComparison(String key, FuelMetrics group) {
         String[] keys = key.split("\\|");
         String brand = keys.length > 0 ? keys[0] : "";
         String grade = keys.length > 1 ? keys[1] : "";
-        double totalLiters = group.stream().mapToDouble(e -> e.getLiters() != null ? e.getLiters() : 0).sum();
-        double totalSpend = group.stream().mapToDouble(e -> e.getTotalAmount() != null ? e.getTotalAmount() : 0).sum();
-        double totalDistance = 0;
-        for (int i = 1; i < group.size(); i++) {
-            FuelEntry prev = group.get(i - 1);
-            FuelEntry curr = group.get(i);
-            double distance = curr.getOdometer() - prev.getOdometer();
-            if (distance > 0) totalDistance += distance;
-        }
-        Double avgCostPerLiter = totalLiters > 0 ? totalSpend / totalLiters : null;
-        Double avgConsumption = totalDistance > 0 ? (totalLiters / totalDistance) * 100 : null;
-        int fillUpCount = group.size();
         return BrandGradeComparisonDto.builder()
                 .brand(brand)
                 .grade(grade)
-                .avgCostPerLiter(avgCostPerLiter)
-                .avgConsumption(avgConsumption)
-                .fillUpCount(fillUpCount)
+                .avgCostPerLiter(group.getAvgCostPerLiter())
+                .avgConsumption(group.getConsumptionPer100km())
+                .fillUpCount(group.getFillUpCount())
                 .build();
     }
 
-    private double calculateTotalLiters(List<FuelEntry> entries) {
-        return entries.stream().mapToDouble(e -> e.getLiters() != null ? e.getLiters() : 0).sum();
-    }
-
-    private double calculateTotalSpend(List<FuelEntry> entries) {
-        return entries.stream().mapToDouble(e -> e.getTotalAmount() != null ? e.getTotalAmount() : 0).sum();
+    private DashboardResponseDto buildDashboard(DashboardScan scan, boolean imperialUnits, boolean columnar) {
+        DashboardResponseDto.DashboardResponseDtoBuilder dashboard = DashboardResponseDto.builder();
+        if (columnar) {
+            dashboard.costPerLiterSeries(scan.getCostPerLiterSeries()).consumptionSeries(scan.getConsumptionSeries());
+        } else {
+            dashboard.costPerLiterData(scan.getCostPerLiterData()).consumptionData(scan.getConsumptionData());
+        }
+        if (scan.isEmpty()) {
+            return dashboard
+                    .totalDistance(0)
+                    .totalLiters(0)
+                    .totalSpend(0)
+                    .avgCostPerLiter(null)
+                    .avgConsumption(null)
+                    .avgConsumptionImperial(null)
+                    .avgCostPerKm(null)
+                    .avgDistancePerDay(null)
+                    .build();
+        }
+        FuelMetrics total = scan.getTotal();
+        double totalLiters = total.getTotalLiters();
+        double totalDistance = total.getTotalDistance();
+        Double avgConsumptionImperial = null;
+        if (imperialUnits && totalLiters > 0 && totalDistance > 0) {
+            double miles = totalDistance * 0.621371;
+            double gallons = totalLiters * 0.264172;
+            avgConsumptionImperial = gallons > 0 ? miles / gallons : null;
+            if (avgConsumptionImperial != null) avgConsumptionImperial = round(avgConsumptionImperial, 1);
+        }
+        return dashboard
+                .totalDistance(totalDistance)
+                .totalLiters(totalLiters)
+                .totalSpend(total.getTotalSpend())
+                .avgCostPerLiter(total.getAvgCostPerLiter())
+                .avgConsumption(total.getConsumptionPer100km())
+                .avgConsumptionImperial(avgConsumptionImperial)
+                .avgCostPerKm(total.getAvgCostPerKm())
+                .avgDistancePerDay(total.getAvgDistancePerDay())
+                .build();
     }
 
-    private List<ChartPointDto> calculateCostPerLiterData(List<FuelEntry> entries) {
-        return entries.stream()
-                .map(e -> ChartPointDto.builder()
-                        .date(e.getDate().toString())
-                        .value((e.getLiters() != null && e.getLiters() > 0 && e.getTotalAmount() != null) ? e.getTotalAmount() / e.getLiters() : null)
-                        .build())
-                .toList();
+    @FunctionalInterface
+    private interface FillConsumer {
+        void accept(long vehicleId, long epochDay, int odometer, double liters, double amount, String fuelBrand, String fuelGrade);
     }
 
-    private ConsumptionResult calculateConsumptionData(List<FuelEntry> entries) {
-        double totalDistance = 0;
-        List<ChartPointDto> consumptionData = new ArrayList<>();
-        for (int i = 1; i < entries.size(); i++) {
-            FuelEntry prev = entries.get(i - 1);
-            FuelEntry curr = entries.get(i);
-            double distance = curr.getOdometer() - prev.getOdometer();
-            if (distance > 0) {
-                totalDistance += distance;
-                consumptionData.add(ChartPointDto.builder()
-                        .date(curr.getDate().toString())
-                        .value((curr.getLiters() != null) ? (curr.getLiters() / distance) * 100 : null)
-                        .build());
-            } else {
-                consumptionData.add(ChartPointDto.builder().date(curr.getDate().toString()).value(null).build());
-            }
-        }
-        return new ConsumptionResult(totalDistance, consumptionData);
+    @FunctionalInterface
+    private interface SeriesVisitor {
+        void visit(VehicleSeries series, int index);
     }
 
-    private Double calculateAvgDistancePerDay(List<FuelEntry> entries, double totalDistance) {
-        if (entries.size() > 1) {
-            long days = ChronoUnit.DAYS.between(entries.getFirst().getDate(), entries.getLast().getDate());
-            return days > 0 ? totalDistance / days : null;
-        }
-        return null;
+    // Feeds the fills of one computation, in (date, odometer) order, to a consumer
+    @FunctionalInterface
+    private interface Fills {
+        void forEach(FillConsumer consumer);
     }
 
     private double round(double value, int places) {
@@ -249,13 +522,4 @@ public class FuelEntryService {
         long tmp = Math.round(value);
         return (double) tmp / factor;
     }
-
-    private static class ConsumptionResult {
-        double totalDistance;
-        List<ChartPointDto> consumptionData;
-        ConsumptionResult(double totalDistance, List<ChartPointDto> consumptionData) {
-            this.totalDistance = totalDistance;
-            this.consumptionData = consumptionData;
-        }
-    }
 }
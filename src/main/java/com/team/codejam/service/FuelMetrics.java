@@ -0,0 +1,146 @@
+package com.team.codejam.service;
+
+/**
+ * Single-pass accumulator of fill-up metrics over primitive fields.
+ * <p>
+ * An instance describes one partition of fills. Fills of a vehicle partition must be added in
+ * (date, odometer) order; two partitions of the same vehicle covering consecutive date ranges are
+ * joined with {@link #merge(FuelMetrics)}, which also accounts for the distance across the boundary.
+ * Partitions of different vehicles (or groups such as brands) are summed with {@link #combine(FuelMetrics)}.
+ */
+public final class FuelMetrics {
+    // Distance marker for a fill without a previous fill to measure from
+    public static final int NO_DISTANCE = Integer.MIN_VALUE;
+
+    private int fillUpCount;
+    private double totalLiters;
+    private double totalSpend;
+    private long totalDistance;
+    private double consumptionSum;
+    private int consumptionCount;
+    private long firstEpochDay = Long.MAX_VALUE;
+    private long lastEpochDay = Long.MIN_VALUE;
+    // Sequence boundary of a single-vehicle partition, used by add and merge
+    private int firstOdometer;
+    private int lastOdometer;
+    private double firstLiters;
+
+    /**
+     * Adds the next fill of this vehicle partition.
+     *
+     * @return distance since the previous fill of the partition, or {@link #NO_DISTANCE} for its first fill
+     */
+    public int add(long epochDay, int odometer, double liters, double amount) {
+        int distance = fillUpCount > 0 ? odometer - lastOdometer : NO_DISTANCE;
+        addFill(epochDay, odometer, liters, amount, distance);
+        return distance;
+    }
+
+    /**
+     * Adds a fill whose distance since the vehicle's previous fill is already known ({@link #NO_DISTANCE} if none),
+     * e.g. when grouping by brand while the vehicle sequence is tracked elsewhere.
+     */
+    public void addFill(long epochDay, int odometer, double liters, double amount, int distance) {
+        if (fillUpCount == 0) {
+            firstOdometer = odometer;
+            firstLiters = liters;
+        }
+        lastOdometer = odometer;
+        fillUpCount++;
+        totalLiters += liters;
+        totalSpend += amount;
+        if (distance > 0) addDistance(distance, liters);
+        if (epochDay < firstEpochDay) firstEpochDay = epochDay;
+        if (epochDay > lastEpochDay) lastEpochDay = epochDay;
+    }
+
+    /**
+     * Appends a later partition of the same vehicle, e.g. the next date range computed in parallel.
+     */
+    public FuelMetrics merge(FuelMetrics later) {
+        if (later.fillUpCount == 0) return this;
+        if (fillUpCount > 0) {
+            int boundaryDistance = later.firstOdometer - lastOdometer;
+            if (boundaryDistance > 0) addDistance(boundaryDistance, later.firstLiters);
+        } else {
+            firstOdometer = later.firstOdometer;
+            firstLiters = later.firstLiters;
+        }
+        lastOdometer = later.lastOdometer;
+        sum(later);
+        return this;
+    }
+
+    /**
+     * Adds an independent partition, e.g. another vehicle. The result no longer describes one sequence.
+     */
+    public FuelMetrics combine(FuelMetrics other) {
+        sum(other);
+        return this;
+    }
+
+    private void sum(FuelMetrics other) {
+        fillUpCount += other.fillUpCount;
+        totalLiters += other.totalLiters;
+        totalSpend += other.totalSpend;
+        totalDistance += other.totalDistance;
+        consumptionSum += other.consumptionSum;
+        consumptionCount += other.consumptionCount;
+        firstEpochDay = Math.min(firstEpochDay, other.firstEpochDay);
+        lastEpochDay = Math.max(lastEpochDay, other.lastEpochDay);
+    }
+
+    private void addDistance(int distance, double liters) {
+        totalDistance += distance;
+        consumptionSum += (liters / distance) * 100;
+        consumptionCount++;
+    }
+
+    public int getFillUpCount() {
+        return fillUpCount;
+    }
+
+    public double getTotalLiters() {
+        return totalLiters;
+    }
+
+    public double getTotalSpend() {
+        return totalSpend;
+    }
+
+    public long getTotalDistance() {
+        return totalDistance;
+    }
+
+    public long getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    public long getLastEpochDay() {
+        return lastEpochDay;
+    }
+
+    public Double getAvgCostPerLiter() {
+        return totalLiters > 0 ? totalSpend / totalLiters : null;
+    }
+
+    // L/100km over the whole partition: total liters against total distance
+    public Double getConsumptionPer100km() {
+        return totalDistance > 0 ? (totalLiters / totalDistance) * 100 : null;
+    }
+
+    // Mean of the per-fill L/100km values
+    public Double getAvgPerFillConsumption() {
+        return consumptionCount > 0 ? consumptionSum / consumptionCount : null;
+    }
+
+    public Double getAvgCostPerKm() {
+        return totalDistance > 0 ? totalSpend / totalDistance : null;
+    }
+
+    public Double getAvgDistancePerDay() {
+        if (fillUpCount < 2) return null;
+        long days = lastEpochDay - firstEpochDay;
+        return days > 0 ? (double) totalDistance / days : null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.team.codejam.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Vehicle-partitioned {@link FuelMetrics}: odometer deltas are only taken between fills of the
+ * same vehicle, so mixed all-vehicle input yields correct distances. Accumulators built over
+ * disjoint vehicles or consecutive date ranges can be merged.
+ */
+public final class FuelMetricsAccumulator {
+    private final Map<Long, FuelMetrics> byVehicle = new LinkedHashMap<>();
+    private long lastVehicleId;
+    private FuelMetrics lastMetrics;
+
+    /**
+     * Adds a fill; fills of each vehicle must arrive in (date, odometer) order.
+     *
+     * @return distance since the vehicle's previous fill, or {@link FuelMetrics#NO_DISTANCE} for its first fill
+     */
+    public int add(long vehicleId, long epochDay, int odometer, double liters, double amount) {
+        return partition(vehicleId).add(epochDay, odometer, liters, amount);
+    }
+
+    /**
+     * Merges an accumulator whose fills, per vehicle, all come after the fills of this one.
+     */
+    public FuelMetricsAccumulator merge(FuelMetricsAccumulator later) {
+        for (Map.Entry<Long, FuelMetrics> entry : later.byVehicle.entrySet()) {
+            // A vehicle new to this accumulator gets a copy, so later stays independent of it
+            byVehicle.computeIfAbsent(entry.getKey(), vehicleId -> new FuelMetrics()).merge(entry.getValue());
+        }
+        lastMetrics = null;
+        return this;
+    }
+
+    public FuelMetrics getVehicle(long vehicleId) {
+        return byVehicle.get(vehicleId);
+    }
+
+    public Map<Long, FuelMetrics> getByVehicle() {
+        return Collections.unmodifiableMap(byVehicle);
+    }
+
+    /**
+     * Totals across all vehicles.
+     */
+    public FuelMetrics getTotal() {
+        FuelMetrics total = new FuelMetrics();
+        for (FuelMetrics metrics : byVehicle.values()) {
+            total.combine(metrics);
+        }
+        return total;
+    }
+
+    private FuelMetrics partition(long vehicleId) {
+        // Input is usually grouped by vehicle, so remember the last partition to skip the map lookup
+        if (lastMetrics != null && lastVehicleId == vehicleId) return lastMetrics;
+        FuelMetrics metrics = byVehicle.get(vehicleId);
+        if (metrics == null) {
+            metrics = new FuelMetrics();
+            byVehicle.put(vehicleId, metrics);
+        }
+        lastVehicleId = vehicleId;
+        lastMetrics = metrics;
+        return metrics;
+    }
+}
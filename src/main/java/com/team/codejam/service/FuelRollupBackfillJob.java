@@ -0,0 +1,37 @@
+package com.team.codejam.service;
+
+import com.team.codejam.dto.VehicleVersionDto;
+import com.team.codejam.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the rollup buckets for fuel entries recorded before the rollup tables existed.
+ * Runs on startup for the vehicles not yet marked as built, one transaction per vehicle, so a
+ * backfill that was interrupted resumes with the vehicles it had not reached. Once every vehicle
+ * is marked, startup only reads the flag and never rescans the fill history.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "codejam.rollups", name = "backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class FuelRollupBackfillJob implements ApplicationRunner {
+    private final FuelRollupService fuelRollupService;
+    private final VehicleRepository vehicleRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<VehicleVersionDto> vehicles = vehicleRepository.findWithoutRollups();
+        for (VehicleVersionDto vehicle : vehicles) {
+            fuelRollupService.backfillVehicle(vehicle.getUserId(), vehicle.getVehicleId());
+        }
+        fuelRollupService.markBackfilled();
+        if (!vehicles.isEmpty()) log.info("Rebuilt fuel rollups for {} vehicles", vehicles.size());
+    }
+}
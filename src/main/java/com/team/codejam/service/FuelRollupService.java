@@ -0,0 +1,198 @@
+package com.team.codejam.service;
+
+import com.team.codejam.dto.FuelEntryPointDto;
+import com.team.codejam.dto.VehicleTotalsDto;
+import com.team.codejam.entity.DailyFuelRollup;
+import com.team.codejam.entity.FuelRollup;
+import com.team.codejam.entity.MonthlyFuelRollup;
+import com.team.codejam.repository.DailyFuelRollupRepository;
+import com.team.codejam.repository.FuelEntryRepository;
+import com.team.codejam.repository.MonthlyFuelRollupRepository;
+import com.team.codejam.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily and monthly per-vehicle rollup buckets and answers
+ * date-range aggregates from them instead of scanning fuel_entries.
+ */
+@Service
+@RequiredArgsConstructor
+public class FuelRollupService {
+    private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+    private final FuelEntryRepository fuelEntryRepository;
+    private final DailyFuelRollupRepository dailyRollupRepository;
+    private final MonthlyFuelRollupRepository monthlyRollupRepository;
+    private final VehicleRepository vehicleRepository;
+    private final VehicleWriteLocks vehicleWriteLocks;
+    // Set once the startup backfill has built the buckets of every vehicle
+    private volatile boolean backfilled;
+
+    /**
+     * Re-computes the buckets affected by inserting or deleting a fill on the given date: the
+     * fill's own day and month. Buckets only hold the fills inside them, so no other bucket changes.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onEntryChanged(Long userId, Long vehicleId, LocalDate date) {
+        refreshDaily(userId, vehicleId, date);
+        refreshMonthly(userId, vehicleId, date.withDayOfMonth(1));
+    }
+
+    @Transactional
+    public void deleteVehicle(Long vehicleId) {
+        dailyRollupRepository.deleteByVehicleId(vehicleId);
+        monthlyRollupRepository.deleteByVehicleId(vehicleId);
+    }
+
+    /**
+     * Rebuilds every bucket of a vehicle from its full history in a single ordered pass.
+     */
+    @Transactional
+    public void rebuildVehicle(Long userId, Long vehicleId) {
+        deleteVehicle(vehicleId);
+        Map<LocalDate, DailyFuelRollup> daily = new LinkedHashMap<>();
+        Map<LocalDate, MonthlyFuelRollup> monthly = new LinkedHashMap<>();
+        for (FuelEntryPointDto point : fuelEntryRepository.findChartPoints(userId, vehicleId, null, null)) {
+            add(daily.computeIfAbsent(point.getDate(), day -> newBucket(new DailyFuelRollup(), userId, vehicleId, day)), point);
+            add(monthly.computeIfAbsent(point.getDate().withDayOfMonth(1), month -> newBucket(new MonthlyFuelRollup(), userId, vehicleId, month)), point);
+        }
+        dailyRollupRepository.saveAll(daily.values());
+        monthlyRollupRepository.saveAll(monthly.values());
+    }
+
+    /**
+     * Builds the buckets of a vehicle recorded before the rollup tables existed and marks them as built.
+     * Locks the vehicle, since writers may already be served while the backfill runs.
+     */
+    public void backfillVehicle(Long userId, Long vehicleId) {
+        vehicleWriteLocks.inTransaction(vehicleId, () -> {
+            rebuildVehicle(userId, vehicleId);
+            vehicleRepository.markRollupsBuilt(vehicleId);
+            return null;
+        });
+    }
+
+    /**
+     * Whether the buckets cover every fill. Until the backfill job has run on this node, vehicles older
+     * than the rollup tables may have no buckets at all; with the job disabled that is never known.
+     */
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    void markBackfilled() {
+        backfilled = true;
+    }
+
+    /**
+     * Per-vehicle totals for {@code [from, to]}; null bounds are open. Whole months are read from
+     * monthly buckets and only the partial months at the edges from daily buckets. Dates of the
+     * returned totals have bucket precision.
+     */
+    public List<VehicleTotalsDto> aggregate(Long userId, Long vehicleId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : EPOCH;
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start.isAfter(end)) return List.of();
+        Map<Long, VehicleTotalsDto> byVehicle = new LinkedHashMap<>();
+        LocalDate firstFullMonth = start.getDayOfMonth() == 1 ? start : start.withDayOfMonth(1).plusMonths(1);
+        LocalDate monthsEnd = end.equals(end.with(TemporalAdjusters.lastDayOfMonth()))
+                ? end.withDayOfMonth(1).plusMonths(1)
+                : end.withDayOfMonth(1);
+        if (firstFullMonth.isBefore(monthsEnd)) {
+            merge(byVehicle, vehicleId != null
+                    ? monthlyRollupRepository.findByUserIdAndVehicleIdAndBucketDateBetween(userId, vehicleId, firstFullMonth, monthsEnd.minusMonths(1))
+                    : monthlyRollupRepository.findByUserIdAndBucketDateBetween(userId, firstFullMonth, monthsEnd.minusMonths(1)));
+            if (start.isBefore(firstFullMonth)) merge(byVehicle, daily(userId, vehicleId, start, firstFullMonth.minusDays(1)));
+            if (!monthsEnd.isAfter(end)) merge(byVehicle, daily(userId, vehicleId, monthsEnd, end));
+        } else {
+            merge(byVehicle, daily(userId, vehicleId, start, end));
+        }
+        return new ArrayList<>(byVehicle.values());
+    }
+
+    private List<DailyFuelRollup> daily(Long userId, Long vehicleId, LocalDate from, LocalDate to) {
+        return vehicleId != null
+                ? dailyRollupRepository.findByUserIdAndVehicleIdAndBucketDateBetween(userId, vehicleId, from, to)
+                : dailyRollupRepository.findByUserIdAndBucketDateBetween(userId, from, to);
+    }
+
+    private void merge(Map<Long, VehicleTotalsDto> byVehicle, List<? extends FuelRollup> buckets) {
+        for (FuelRollup bucket : buckets) {
+            VehicleTotalsDto totals = byVehicle.get(bucket.getVehicleId());
+            if (totals == null) {
+                byVehicle.put(bucket.getVehicleId(), new VehicleTotalsDto(bucket.getVehicleId(), (long) bucket.getFillCount(),
+                        bucket.getLiters(), bucket.getSpend(), bucket.getMinOdometer(), bucket.getMaxOdometer(),
+                        bucket.getBucketDate(), bucket.getBucketDate()));
+                continue;
+            }
+            totals.setFillUpCount(totals.getFillUpCount() + bucket.getFillCount());
+            totals.setTotalLiters(totals.getTotalLiters() + bucket.getLiters());
+            totals.setTotalSpend(totals.getTotalSpend() + bucket.getSpend());
+            totals.setMinOdometer(Math.min(totals.getMinOdometer(), bucket.getMinOdometer()));
+            totals.setMaxOdometer(Math.max(totals.getMaxOdometer(), bucket.getMaxOdometer()));
+            if (bucket.getBucketDate().isBefore(totals.getFirstDate())) totals.setFirstDate(bucket.getBucketDate());
+            if (bucket.getBucketDate().isAfter(totals.getLastDate())) totals.setLastDate(bucket.getBucketDate());
+        }
+    }
+
+    private void refreshDaily(Long userId, Long vehicleId, LocalDate day) {
+        DailyFuelRollup rollup = dailyRollupRepository.findByVehicleIdAndBucketDate(vehicleId, day)
+                .orElseGet(() -> newBucket(new DailyFuelRollup(), userId, vehicleId, day));
+        if (recompute(rollup, day, day)) {
+            dailyRollupRepository.save(rollup);
+        } else if (rollup.getId() != null) {
+            dailyRollupRepository.delete(rollup);
+        }
+    }
+
+    private void refreshMonthly(Long userId, Long vehicleId, LocalDate month) {
+        MonthlyFuelRollup rollup = monthlyRollupRepository.findByVehicleIdAndBucketDate(vehicleId, month)
+                .orElseGet(() -> newBucket(new MonthlyFuelRollup(), userId, vehicleId, month));
+        if (recompute(rollup, month, month.with(TemporalAdjusters.lastDayOfMonth()))) {
+            monthlyRollupRepository.save(rollup);
+        } else if (rollup.getId() != null) {
+            monthlyRollupRepository.delete(rollup);
+        }
+    }
+
+    // Rebuilds a bucket from the fills in [from, to]; false if the bucket is now empty
+    private boolean recompute(FuelRollup rollup, LocalDate from, LocalDate to) {
+        List<FuelEntryPointDto> points = fuelEntryRepository.findChartPoints(rollup.getUserId(), rollup.getVehicleId(), from, to);
+        if (points.isEmpty()) return false;
+        rollup.setLiters(0);
+        rollup.setSpend(0);
+        rollup.setFillCount(0);
+        for (FuelEntryPointDto point : points) add(rollup, point);
+        return true;
+    }
+
+    private static void add(FuelRollup rollup, FuelEntryPointDto point) {
+        if (rollup.getFillCount() == 0) {
+            rollup.setMinOdometer(point.getOdometer());
+            rollup.setMaxOdometer(point.getOdometer());
+        } else {
+            rollup.setMinOdometer(Math.min(rollup.getMinOdometer(), point.getOdometer()));
+            rollup.setMaxOdometer(Math.max(rollup.getMaxOdometer(), point.getOdometer()));
+        }
+        rollup.setLiters(rollup.getLiters() + point.getLiters());
+        rollup.setSpend(rollup.getSpend() + point.getTotalAmount());
+        rollup.setFillCount(rollup.getFillCount() + 1);
+    }
+
+    private static <T extends FuelRollup> T newBucket(T rollup, Long userId, Long vehicleId, LocalDate bucketDate) {
+        rollup.setUserId(userId);
+        rollup.setVehicleId(vehicleId);
+        rollup.setBucketDate(bucketDate);
+        return rollup;
+    }
+}
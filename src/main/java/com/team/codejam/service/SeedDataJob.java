@@ -0,0 +1,435 @@
+package com.team.codejam.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Loads synthetic users, vehicles and fill-ups for scale testing; active only under the {@code seed} profile.
+ * The generated history depends only on the configured sizes, random seed and end date, so two runs with the
+ * same settings produce identical data. Rows are written through batched JDBC inserts, one transaction per
+ * batch, and the daily and monthly rollups are written alongside the fills, so no backfill is needed.
+ * <p>
+ * Example: {@code --spring.profiles.active=seed --codejam.seed.users=100000 --codejam.seed.fills-per-vehicle=300}.
+ * On PostgreSQL keep {@code reWriteBatchedInserts=true} on the JDBC URL (the default URL has it), otherwise
+ * the driver still sends each row of a batch as its own statement.
+ */
+@Slf4j
+@Component
+@Profile("seed")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SeedDataJob implements ApplicationRunner {
+    private static final String[] BRANDS = {"Shell", "BP", "Aral", "Esso", "TotalEnergies", "Circle K", "Avia", "Jet"};
+    private static final int[] BRAND_WEIGHTS = {24, 18, 14, 12, 10, 9, 7, 6};
+    private static final double[] BRAND_PREMIUMS = {1.03, 1.02, 1.02, 1.00, 1.01, 0.99, 0.98, 0.96};
+    private static final String[] STREETS = {"Main St", "Ring Rd", "Harbour Way", "Station Sq", "Mill Ln", "Airport Rd",
+            "Park Ave", "Bridge St", "Market Pl", "Hill Rd", "Lake Dr", "North Gate"};
+    private static final String[] PETROL_GRADES = {"95", "E10", "98"};
+    private static final double[] PETROL_PRICES = {1.72, 1.66, 1.86};
+    private static final String[] DIESEL_GRADES = {"Diesel", "Diesel Premium"};
+    private static final double[] DIESEL_PRICES = {1.62, 1.78};
+    private static final String[][] MODELS = {{"Volkswagen", "Golf"}, {"Toyota", "Corolla"}, {"Skoda", "Octavia"},
+            {"Ford", "Focus"}, {"Renault", "Clio"}, {"BMW", "320d"}, {"Opel", "Astra"}, {"Hyundai", "i30"}};
+    private static final int PROGRESS_EVERY = 1_000_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext applicationContext;
+
+    @Value("${codejam.seed.users:1000}")
+    private int users;
+
+    @Value("${codejam.seed.vehicles-per-user:2}")
+    private int vehiclesPerUser;
+
+    @Value("${codejam.seed.fills-per-vehicle:200}")
+    private int fillsPerVehicle;
+
+    @Value("${codejam.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${codejam.seed.end-date:2024-12-31}")
+    private String endDate;
+
+    @Value("${codejam.seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${codejam.seed.password:seed-password}")
+    private String password;
+
+    @Value("${codejam.seed.exit-after:true}")
+    private boolean exitAfter;
+
+    private TransactionTemplate transactionTemplate;
+    private int endDay;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (users <= 0 || vehiclesPerUser <= 0 || fillsPerVehicle <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Seed sizes must be positive");
+        }
+        String prefix = "seed-" + randomSeed + "-";
+        Integer existing = jdbcTemplate.queryForObject("select count(*) from users where email like ?", Integer.class, prefix + "%");
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Seed " + randomSeed + " is already loaded; use another codejam.seed.random-seed");
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        endDay = (int) LocalDate.parse(endDate).toEpochDay();
+        long started = System.nanoTime();
+
+        long[] userIds = insertUsers(prefix);
+        long[] vehicleIds = insertVehicles(prefix, userIds);
+        long fills = insertFills(userIds, vehicleIds);
+
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Seeded {} users, {} vehicles and {} fill-ups in {} s ({} fills/s)", users, vehicleIds.length, fills,
+                millis / 1000, millis > 0 ? fills * 1000 / millis : fills);
+        if (exitAfter) System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+
+    // Returns the ids of the seeded users by user index
+    private long[] insertUsers(String prefix) {
+        // BCrypt is deliberately slow, so every seeded user shares one hash
+        String passwordHash = passwordEncoder.encode(password);
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int u = 0; u < users; u++) {
+            rows.add(new Object[]{prefix + u + "@example.com", passwordHash, "Seed User " + u, "EUR", "km", "L", "Europe/Berlin"});
+            if (rows.size() == batchSize || u == users - 1) {
+                List<Object[]> batch = rows;
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate("""
+                        insert into users (email, password_hash, display_name, currency, distance_unit, volume_unit, time_zone)
+                        values (?, ?, ?, ?, ?, ?, ?)
+                        """, batch));
+                rows = new ArrayList<>(batchSize);
+            }
+        }
+        long[] ids = new long[users];
+        jdbcTemplate.query("select id, email from users where email like ?", rs -> {
+            String email = rs.getString(2);
+            ids[Integer.parseInt(email.substring(prefix.length(), email.indexOf('@')))] = rs.getLong(1);
+        }, prefix + "%");
+        log.info("Seeded {} users", users);
+        return ids;
+    }
+
+    // Returns the ids of the seeded vehicles by userIndex * vehiclesPerUser + vehicleIndex
+    private long[] insertVehicles(String prefix, long[] userIds) {
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int u = 0; u < users; u++) {
+            for (int v = 0; v < vehiclesPerUser; v++) {
+                VehicleProfile profile = new VehicleProfile(vehicleRandom(u, v));
+                rows.add(new Object[]{userIds[u], "Seed car " + v, profile.make, profile.model, profile.year,
+                        profile.diesel ? "Diesel" : "Petrol"});
+                if (rows.size() == batchSize) rows = flushVehicles(rows);
+            }
+        }
+        if (!rows.isEmpty()) flushVehicles(rows);
+
+        Map<Long, Integer> userIndexes = new HashMap<>(users * 2);
+        for (int u = 0; u < users; u++) userIndexes.put(userIds[u], u);
+        long[] ids = new long[users * vehiclesPerUser];
+        jdbcTemplate.query("""
+                select v.id, v.user_id, v.name from vehicles v join users u on u.id = v.user_id
+                where u.email like ?
+                """, rs -> {
+            int vehicleIndex = Integer.parseInt(rs.getString(3).substring("Seed car ".length()));
+            ids[userIndexes.get(rs.getLong(2)) * vehiclesPerUser + vehicleIndex] = rs.getLong(1);
+        }, prefix + "%");
+        log.info("Seeded {} vehicles", ids.length);
+        return ids;
+    }
+
+    private List<Object[]> flushVehicles(List<Object[]> rows) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate("""
+                insert into vehicles (user_id, name, make, model, year, fuel_type, rollups_built) values (?, ?, ?, ?, ?, ?, true)
+                """, rows));
+        return new ArrayList<>(batchSize);
+    }
+
+    private long insertFills(long[] userIds, long[] vehicleIds) {
+        FillBatch fills = new FillBatch();
+        RollupBatch daily = new RollupBatch("fuel_daily_rollups", true);
+        RollupBatch monthly = new RollupBatch("fuel_monthly_rollups", false);
+        int[] distances = new int[fillsPerVehicle];
+        int[] gaps = new int[fillsPerVehicle];
+        long nextProgress = PROGRESS_EVERY;
+        long started = System.nanoTime();
+        for (int u = 0; u < users; u++) {
+            for (int v = 0; v < vehiclesPerUser; v++) {
+                generate(userIds[u], vehicleIds[u * vehiclesPerUser + v], vehicleRandom(u, v), distances, gaps, fills, daily, monthly);
+                if (fills.written >= nextProgress) {
+                    long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+                    log.info("Seeded {} fill-ups ({} fills/s)", fills.written, fills.written * 1000 / millis);
+                    nextProgress += PROGRESS_EVERY;
+                }
+            }
+        }
+        fills.flush();
+        daily.flush();
+        monthly.flush();
+        return fills.written;
+    }
+
+    // One vehicle's history, oldest fill first; the daily and monthly buckets are built on the way
+    private void generate(long userId, long vehicleId, SplittableRandom random, int[] distances, int[] gaps,
+                          FillBatch fills, RollupBatch daily, RollupBatch monthly) {
+        VehicleProfile profile = new VehicleProfile(random);
+        // Distances and gaps are drawn first so the history can be placed to end shortly before the end date
+        int span = 0;
+        for (int i = 0; i < fillsPerVehicle; i++) {
+            distances[i] = (int) Math.round(profile.rangeKm * (0.45 + 0.45 * random.nextDouble()));
+            gaps[i] = Math.max(1, (int) Math.round(distances[i] / profile.dailyKm * (0.8 + 0.4 * random.nextDouble())));
+            if (i > 0) span += gaps[i];
+        }
+        int day = endDay - span - random.nextInt(15);
+        int odometer = 5_000 + random.nextInt(120_000);
+        int month = Integer.MIN_VALUE;
+        for (int i = 0; i < fillsPerVehicle; i++) {
+            if (i > 0) {
+                day += gaps[i];
+                odometer += distances[i];
+            }
+            double liters = round2(Math.min(profile.tankLiters,
+                    distances[i] * profile.consumption / 100 * (0.94 + 0.12 * random.nextDouble())));
+            int brand = random.nextDouble() < 0.7 ? profile.homeBrand : weightedBrand(random);
+            String station = BRANDS[brand] + " " + STREETS[random.nextDouble() < 0.75
+                    ? profile.homeStreets[random.nextInt(profile.homeStreets.length)]
+                    : random.nextInt(STREETS.length)];
+            int grade = profile.grade(random);
+            double price = profile.basePrice(grade) * marketPrice(day) * BRAND_PREMIUMS[brand] * (0.985 + 0.03 * random.nextDouble());
+            double amount = round2(liters * price);
+
+            fills.add(vehicleId, userId, day, odometer, station, BRANDS[brand], profile.gradeName(grade), liters, amount);
+            // Gaps are at least a day, so every fill is alone in its daily bucket
+            daily.add(vehicleId, userId, day, liters, amount, odometer);
+            int fillMonth = (int) LocalDate.ofEpochDay(day).withDayOfMonth(1).toEpochDay();
+            if (fillMonth != month) {
+                if (month != Integer.MIN_VALUE) monthly.next();
+                monthly.add(vehicleId, userId, fillMonth, liters, amount, odometer);
+                month = fillMonth;
+            } else {
+                monthly.accumulate(liters, amount, odometer);
+            }
+        }
+        monthly.next();
+    }
+
+    // Market price multiplier shared by all vehicles: a two-year cycle, a seasonal wobble and a slow upward trend
+    private double marketPrice(int epochDay) {
+        double yearsBeforeEnd = (endDay - epochDay) / 365.0;
+        return Math.max(0.5, 1 + 0.10 * Math.sin(2 * Math.PI * epochDay / 730.0)
+                + 0.03 * Math.sin(2 * Math.PI * epochDay / 91.0) - 0.03 * yearsBeforeEnd);
+    }
+
+    private SplittableRandom vehicleRandom(int userIndex, int vehicleIndex) {
+        return new SplittableRandom(randomSeed * 1_000_003L + (long) userIndex * 1_009L + vehicleIndex);
+    }
+
+    private static int weightedBrand(SplittableRandom random) {
+        int pick = random.nextInt(100);
+        for (int i = 0; i < BRAND_WEIGHTS.length; i++) {
+            pick -= BRAND_WEIGHTS[i];
+            if (pick < 0) return i;
+        }
+        return BRAND_WEIGHTS.length - 1;
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    // Fixed traits of a vehicle, always drawn first from its random stream
+    private static final class VehicleProfile {
+        final String make;
+        final String model;
+        final int year;
+        final boolean diesel;
+        final double consumption; // L/100km
+        final double tankLiters;
+        final double rangeKm;
+        final double dailyKm;
+        final int homeBrand;
+        final int[] homeStreets;
+        final int mainGrade;
+
+        VehicleProfile(SplittableRandom random) {
+            String[] makeModel = MODELS[random.nextInt(MODELS.length)];
+            make = makeModel[0];
+            model = makeModel[1];
+            year = 2005 + random.nextInt(20);
+            diesel = random.nextDouble() < 0.3;
+            consumption = diesel ? 4.5 + 3 * random.nextDouble() : 5.5 + 4 * random.nextDouble();
+            tankLiters = 40 + 5 * random.nextInt(7);
+            rangeKm = tankLiters / consumption * 100;
+            dailyKm = 20 + 70 * random.nextDouble();
+            homeBrand = weightedBrand(random);
+            homeStreets = new int[]{random.nextInt(STREETS.length), random.nextInt(STREETS.length)};
+            mainGrade = diesel || random.nextDouble() < 0.7 ? 0 : 1;
+        }
+
+        int grade(SplittableRandom random) {
+            if (random.nextDouble() >= 0.1) return mainGrade;
+            return diesel ? 1 : 2;
+        }
+
+        String gradeName(int grade) {
+            return diesel ? DIESEL_GRADES[grade] : PETROL_GRADES[grade];
+        }
+
+        double basePrice(int grade) {
+            return diesel ? DIESEL_PRICES[grade] : PETROL_PRICES[grade];
+        }
+    }
+
+    // Column buffers for fuel_entries rows; flushed as one JDBC batch in its own transaction
+    private final class FillBatch {
+        final long[] vehicleIds = new long[batchSize];
+        final long[] userIds = new long[batchSize];
+        final int[] days = new int[batchSize];
+        final int[] odometers = new int[batchSize];
+        final String[] stations = new String[batchSize];
+        final String[] brands = new String[batchSize];
+        final String[] grades = new String[batchSize];
+        final double[] liters = new double[batchSize];
+        final double[] amounts = new double[batchSize];
+        int size;
+        long written;
+
+        void add(long vehicleId, long userId, int day, int odometer, String station, String brand, String grade,
+                 double fillLiters, double amount) {
+            vehicleIds[size] = vehicleId;
+            userIds[size] = userId;
+            days[size] = day;
+            odometers[size] = odometer;
+            stations[size] = station;
+            brands[size] = brand;
+            grades[size] = grade;
+            liters[size] = fillLiters;
+            amounts[size] = amount;
+            if (++size == batchSize) flush();
+        }
+
+        void flush() {
+            if (size == 0) return;
+            int rows = size;
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate("""
+                    insert into fuel_entries (vehicle_id, user_id, date, odometer, station_name, fuel_brand, fuel_grade, liters, total_amount)
+                    values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, vehicleIds[i]);
+                    ps.setLong(2, userIds[i]);
+                    ps.setObject(3, LocalDate.ofEpochDay(days[i]));
+                    ps.setInt(4, odometers[i]);
+                    ps.setString(5, stations[i]);
+                    ps.setString(6, brands[i]);
+                    ps.setString(7, grades[i]);
+                    ps.setDouble(8, liters[i]);
+                    ps.setDouble(9, amounts[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows;
+                }
+            }));
+            written += rows;
+            size = 0;
+        }
+    }
+
+    // Column buffers for rollup buckets; the bucket at the current index stays open until next()
+    private final class RollupBatch {
+        final String table;
+        final boolean singleFill;
+        final long[] vehicleIds = new long[batchSize];
+        final long[] userIds = new long[batchSize];
+        final int[] days = new int[batchSize];
+        final double[] liters = new double[batchSize];
+        final double[] spend = new double[batchSize];
+        final int[] fillCounts = new int[batchSize];
+        final int[] minOdometers = new int[batchSize];
+        final int[] maxOdometers = new int[batchSize];
+        int size;
+
+        RollupBatch(String table, boolean singleFill) {
+            this.table = table;
+            this.singleFill = singleFill;
+        }
+
+        // Opens a bucket with its first fill; single-fill buckets are closed right away
+        void add(long vehicleId, long userId, int day, double fillLiters, double amount, int odometer) {
+            vehicleIds[size] = vehicleId;
+            userIds[size] = userId;
+            days[size] = day;
+            liters[size] = fillLiters;
+            spend[size] = amount;
+            fillCounts[size] = 1;
+            minOdometers[size] = odometer;
+            maxOdometers[size] = odometer;
+            if (singleFill) next();
+        }
+
+        void accumulate(double fillLiters, double amount, int odometer) {
+            liters[size] += fillLiters;
+            spend[size] += amount;
+            fillCounts[size]++;
+            maxOdometers[size] = Math.max(maxOdometers[size], odometer);
+        }
+
+        void next() {
+            if (++size == batchSize) flush();
+        }
+
+        void flush() {
+            if (size == 0) return;
+            int rows = size;
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate("insert into " + table
+                    + " (vehicle_id, user_id, bucket_date, liters, spend, fill_count, min_odometer, max_odometer)"
+                    + " values (?, ?, ?, ?, ?, ?, ?, ?)", new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, vehicleIds[i]);
+                    ps.setLong(2, userIds[i]);
+                    ps.setObject(3, LocalDate.ofEpochDay(days[i]));
+                    ps.setDouble(4, liters[i]);
+                    ps.setDouble(5, spend[i]);
+                    ps.setInt(6, fillCounts[i]);
+                    ps.setInt(7, minOdometers[i]);
+                    ps.setInt(8, maxOdometers[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows;
+                }
+            }));
+            size = 0;
+        }
+    }
+}
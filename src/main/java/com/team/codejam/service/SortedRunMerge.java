@@ -0,0 +1,38 @@
+package com.team.codejam.service;
+
+/**
+ * k-way merge of sorted runs, visiting their elements in merged order. k is the number of vehicles of one
+ * user, so each step picks the next element with a linear scan over the runs rather than a heap. On equal
+ * elements the run with the lower index comes first.
+ */
+final class SortedRunMerge {
+    private SortedRunMerge() {
+    }
+
+    /**
+     * Visits the elements {@code next[r]} (inclusive) to {@code end[r]} (exclusive) of every run r;
+     * {@code next} is advanced as they are visited.
+     */
+    static void forEach(int[] next, int[] end, Order order, Visitor visitor) {
+        int k = next.length;
+        while (true) {
+            int best = -1;
+            for (int r = 0; r < k; r++) {
+                if (next[r] == end[r]) continue;
+                if (best < 0 || order.before(r, next[r], best, next[best])) best = r;
+            }
+            if (best < 0) return;
+            visitor.visit(best, next[best]++);
+        }
+    }
+
+    @FunctionalInterface
+    interface Order {
+        boolean before(int run, int index, int otherRun, int otherIndex);
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(int run, int index);
+    }
+}
@@ -0,0 +1,42 @@
+package com.team.codejam.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Times the stages of a statistics computation as {@code codejam.stage{operation, stage}}, so a slow
+ * response can be attributed to fetching the data, the in-memory math or building the response.
+ * Cached results skip the computation and are not timed here.
+ */
+@Component
+@RequiredArgsConstructor
+public class StageTimers {
+    // Reading fills, series snapshots or totals
+    public static final String LOAD = "load";
+    // Metrics and groupings computed in memory
+    public static final String AGGREGATE = "aggregate";
+    // Building response objects
+    public static final String MAP = "map";
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T time(String operation, String stage, Supplier<T> work) {
+        return timer(operation, stage).record(work);
+    }
+
+    public void run(String operation, String stage, Runnable work) {
+        timer(operation, stage).record(work);
+    }
+
+    private Timer timer(String operation, String stage) {
+        return Timer.builder("codejam.stage")
+                .description("Time spent in one stage of a statistics computation")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
@@ -1,108 +1,123 @@
 package com.team.codejam.service;
 
-import com.team.codejam.entity.FuelEntry;
+import com.team.codejam.cache.StatsResultCache;
+import com.team.codejam.cache.VehicleSeriesStore;
+import com.team.codejam.dto.FuelEntryPerFillView;
+import com.team.codejam.dto.VehicleTotalsDto;
 import com.team.codejam.repository.FuelEntryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticsService {
 
     private final FuelEntryRepository fuelEntryRepository;
+    private final FuelRollupService fuelRollupService;
+    private final VehicleSeriesStore seriesStore;
+    private final StatsResultCache statsResultCache;
+    private final StageTimers stageTimers;
 
     // --- Per-fill metrics ---
     public List<Map<String, Object>> getPerFillMetrics(Long userId, Long vehicleId) {
-        List<FuelEntry> entries = fuelEntryRepository.findByVehicleUserIdAndVehicleIdOrderByDateAsc(userId, vehicleId);
-        System.out.println("entries = " + entries);
-        List<Map<String, Object>> metrics = new ArrayList<>();
-        FuelEntry prev = null;
-        for (FuelEntry entry : entries) {
-            metrics.add(mapFuelEntryToMap(entry, prev));
-            prev = entry;
-        }
-        return metrics;
+        List<FuelEntryPerFillView> views = perFillViews("perFill", userId, vehicleId);
+        return stageTimers.time("perFill", StageTimers.MAP, () -> {
+            List<Map<String, Object>> metrics = new ArrayList<>(views.size());
+            for (FuelEntryPerFillView view : views) {
+                metrics.add(mapPerFillViewToMap(view, true));
+            }
+            return metrics;
+        });
     }
 
     // --- Rolling and all-time aggregates ---
     public Map<String, Object> getAggregates(Long userId, Long vehicleId, LocalDate from, LocalDate to) {
-        List<FuelEntry> entries = fuelEntryRepository.findByVehicleUserIdAndVehicleIdAndDateBetweenOrderByDateDesc(userId, vehicleId, from, to);
-        return calculateAggregates(entries);
+        return statsResultCache.get("aggregates", userId, vehicleId, from, to, false,
+                () -> aggregate("aggregates", userId, vehicleId, from, to));
+    }
+
+    // --- Period over period: [from, to] against the window of equal length right before it ---
+    public Map<String, Object> getPeriodComparison(Long userId, Long vehicleId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        return statsResultCache.get("periodComparison", userId, vehicleId, from, to, false,
+                () -> calculatePeriodComparison(userId, vehicleId, from, to));
+    }
+
+    private Map<String, Object> calculatePeriodComparison(Long userId, Long vehicleId, LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        LocalDate previousTo = from.minusDays(1);
+        LocalDate previousFrom = previousTo.minusDays(days - 1);
+        Map<String, Object> current = aggregate("periodComparison", userId, vehicleId, from, to);
+        Map<String, Object> previous = aggregate("periodComparison", userId, vehicleId, previousFrom, previousTo);
+        Map<String, Object> change = new HashMap<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            double now = ((Number) entry.getValue()).doubleValue();
+            double before = ((Number) previous.get(entry.getKey())).doubleValue();
+            change.put(entry.getKey(), before != 0 ? (now - before) / before * 100 : null);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("current", current);
+        result.put("previous", previous);
+        result.put("previousFrom", previousFrom);
+        result.put("previousTo", previousTo);
+        result.put("changePercent", change);
+        return result;
     }
 
     // --- Per-brand and per-grade comparisons ---
     public List<Map<String, Object>> getBrandGradeStats(Long userId, Long vehicleId) {
-        List<FuelEntry> entries = fuelEntryRepository.findByVehicleUserIdAndVehicleIdOrderByDateDesc(userId, vehicleId);
-        System.out.println("entries = " + entries);
-        Map<String, List<FuelEntry>> byBrand = entries.stream().collect(Collectors.groupingBy(FuelEntry::getFuelBrand));
-        System.out.println("byBrand = " + byBrand);
-        List<Map<String, Object>> stats = new ArrayList<>();
-        for (String brand : byBrand.keySet()) {
-            List<FuelEntry> brandEntries = byBrand.get(brand);
-            double avgCostPerLiter = brandEntries.stream().mapToDouble(FuelEntry::getTotalAmount).sum() /
-                    brandEntries.stream().mapToDouble(FuelEntry::getLiters).sum();
-            double avgConsumption = calculateAvgConsumption(brandEntries);
-            double totalLiters = brandEntries.stream().mapToDouble(FuelEntry::getLiters).sum();
-            Map<String, Object> stat = mapFuelEntryToMap(brandEntries.getFirst(), null);
-            stat.put("liters", totalLiters);
-            stat.put("fuelBrand", brand);
-            stat.put("avgCostPerLiter", avgCostPerLiter);
-            stat.put("avgConsumptionLPer100km", avgConsumption);
-            stat.put("numFillUps", brandEntries.size());
-            stat.put("totalAmount", brandEntries.stream().mapToDouble(FuelEntry::getTotalAmount).sum());
-            stats.add(stat);
-        }
-        return stats;
+        List<FuelEntryPerFillView> views = perFillViews("brandStats", userId, vehicleId);
+        return stageTimers.time("brandStats", StageTimers.AGGREGATE,
+                () -> calculateGroupStats(views, FuelEntryPerFillView::getFuelBrand, "fuelBrand"));
     }
 
-    // --- Aggregates across all vehicles ---
+    // --- Aggregates across all vehicles, with the same figures per vehicle under "vehicles" ---
     public Map<String, Object> getUserAggregates(Long userId, LocalDate from, LocalDate to) {
-        List<FuelEntry> entries = fuelEntryRepository.findByVehicleUserIdAndDateBetween(userId, from, to);
-        return calculateAggregates(entries);
+        return statsResultCache.get("userAggregates", userId, null, from, to, false, () -> {
+            List<VehicleTotalsDto> totals = stageTimers.time("userAggregates", StageTimers.LOAD, () -> vehicleTotals(userId, null, from, to));
+            return stageTimers.time("userAggregates", StageTimers.AGGREGATE, () -> {
+                Map<String, Object> aggregates = calculateAggregates(totals);
+                List<Map<String, Object>> vehicles = new ArrayList<>(totals.size());
+                for (VehicleTotalsDto vehicleTotals : totals) {
+                    Map<String, Object> vehicle = calculateAggregates(List.of(vehicleTotals));
+                    vehicle.put("vehicleId", vehicleTotals.getVehicleId());
+                    vehicles.add(vehicle);
+                }
+                aggregates.put("vehicles", vehicles);
+                return aggregates;
+            });
+        });
     }
 
     public Map<String, Map<String, Object>> getMonthlyStats(Long userId, Long vehicleId, Integer windowSizeDays) {
         int window = (windowSizeDays != null) ? windowSizeDays : 30;
         LocalDate today = LocalDate.now();
         LocalDate windowAgo = today.minusDays(window);
-        List<FuelEntry> entries = fuelEntryRepository.findByVehicleUserIdAndVehicleIdOrderByDateDesc(userId, vehicleId)
-            .stream()
-            .filter(e -> !e.getDate().isBefore(windowAgo))
-            .collect(Collectors.toList());
-        Map<String, Map<String, Object>> stats = new TreeMap<>();
-        var x = calculateAggregates(entries);
-        x.put("avgDistancePerDay", (Integer) x.get("totalDistance") / windowSizeDays);
-        stats.put("last" + window + "Days", x);
-        return stats;
+        return statsResultCache.get("monthly", userId, vehicleId, windowAgo, today, false, () -> {
+            Map<String, Map<String, Object>> stats = new TreeMap<>();
+            var x = aggregate("monthly", userId, vehicleId, windowAgo, today);
+            x.put("avgDistancePerDay", (Integer) x.get("totalDistance") / window);
+            stats.put("last" + window + "Days", x);
+            return stats;
+        });
     }
 
     // --- Statistics by fuel grade/type ---
     public List<Map<String, Object>> getGradeStats(Long vehicleId, Long userId) {
-        List<FuelEntry> entries = fuelEntryRepository.findByVehicleUserIdAndVehicleIdOrderByDateDesc(userId, vehicleId);
-        Map<String, List<FuelEntry>> byGrade = entries.stream().collect(Collectors.groupingBy(FuelEntry::getFuelGrade));
-        List<Map<String, Object>> stats = new ArrayList<>();
-        for (String grade : byGrade.keySet()) {
-            List<FuelEntry> gradeEntries = byGrade.get(grade);
-            double avgCostPerLiter = gradeEntries.stream().mapToDouble(FuelEntry::getTotalAmount).sum() /
-                    gradeEntries.stream().mapToDouble(FuelEntry::getLiters).sum();
-            double avgConsumption = calculateAvgConsumption(gradeEntries);
-            Map<String, Object> stat = mapFuelEntryToMap(gradeEntries.getFirst(), null);
-            stat.put("fuelGrade", grade);
-            stat.put("avgCostPerLiter", avgCostPerLiter);
-            stat.put("avgConsumptionLPer100km", avgConsumption);
-            stat.put("numFillUps", gradeEntries.size());
-            stat.put("totalAmount", gradeEntries.stream().mapToDouble(FuelEntry::getTotalAmount).sum());
-            stats.add(stat);
-        }
-        return stats;
+        List<FuelEntryPerFillView> views = perFillViews("gradeStats", userId, vehicleId);
+        return stageTimers.time("gradeStats", StageTimers.AGGREGATE,
+                () -> calculateGroupStats(views, FuelEntryPerFillView::getFuelGrade, "fuelGrade"));
     }
 
     // --- Dashboard summary ---
@@ -112,45 +127,58 @@ public class StatisticsService {
         return summary;
     }
 
-    // --- Helper: Map FuelEntry fields to Map ---
-    private Map<String, Object> mapFuelEntryToMap(FuelEntry entry, FuelEntry prev) {
+    // --- Helper: Timed load of per-vehicle totals followed by the timed aggregate over them ---
+    private Map<String, Object> aggregate(String operation, Long userId, Long vehicleId, LocalDate from, LocalDate to) {
+        List<VehicleTotalsDto> totals = stageTimers.time(operation, StageTimers.LOAD, () -> vehicleTotals(userId, vehicleId, from, to));
+        return stageTimers.time(operation, StageTimers.AGGREGATE, () -> calculateAggregates(totals));
+    }
+
+    // --- Helper: Timed load of the vehicle's per-fill rows ---
+    private List<FuelEntryPerFillView> perFillViews(String operation, Long userId, Long vehicleId) {
+        return stageTimers.time(operation, StageTimers.LOAD,
+                () -> fuelEntryRepository.findPerFill(userId, vehicleId, null, null, Pageable.unpaged()).getContent());
+    }
+
+    // --- Helper: Per-vehicle totals from the in-memory series, the backfilled rollup buckets or the fills ---
+    private List<VehicleTotalsDto> vehicleTotals(Long userId, Long vehicleId, LocalDate from, LocalDate to) {
+        if (seriesStore.isEnabled()) return seriesStore.aggregate(userId, vehicleId, from, to);
+        return fuelRollupService.isBackfilled()
+                ? fuelRollupService.aggregate(userId, vehicleId, from, to)
+                : fuelEntryRepository.findVehicleTotals(userId, vehicleId, from, to);
+    }
+
+    // --- Helper: Map window-function per-fill row to Map ---
+    private Map<String, Object> mapPerFillViewToMap(FuelEntryPerFillView view, boolean includeDistance) {
         Map<String, Object> m = new HashMap<>();
-        m.put("entryId", entry.getId());
-        m.put("date", entry.getDate());
-        m.put("odometer", entry.getOdometer());
-        m.put("stationName", entry.getStationName());
-        m.put("fuelBrand", entry.getFuelBrand());
-        m.put("fuelGrade", entry.getFuelGrade());
-        m.put("notes", entry.getNotes());
-        m.put("vehicleId", entry.getVehicle() != null ? entry.getVehicle().getId() : null);
-        m.put("unitPrice", entry.getLiters() > 0 ? entry.getTotalAmount() / entry.getLiters() : null);
-        if (prev != null) {
-            int distance = entry.getOdometer() - prev.getOdometer();
+        m.put("entryId", view.getId());
+        m.put("date", view.getDate());
+        m.put("odometer", view.getOdometer());
+        m.put("stationName", view.getStationName());
+        m.put("fuelBrand", view.getFuelBrand());
+        m.put("fuelGrade", view.getFuelGrade());
+        m.put("notes", view.getNotes());
+        m.put("vehicleId", view.getVehicleId());
+        m.put("unitPrice", view.getLiters() > 0 ? view.getTotalAmount() / view.getLiters() : null);
+        Integer distance = view.getDistanceSinceLast();
+        if (includeDistance && distance != null) {
             m.put("distanceSinceLast", distance);
-            m.put("consumptionLPer100km", distance > 0 ? (entry.getLiters() / distance) * 100 : null);
-            m.put("costPerKm", distance > 0 ? entry.getTotalAmount() / distance : null);
+            m.put("consumptionLPer100km", distance > 0 ? (view.getLiters() / distance) * 100 : null);
+            m.put("costPerKm", distance > 0 ? view.getTotalAmount() / distance : null);
         }
         return m;
     }
 
-    // --- Helper: Calculate aggregates for FuelEntry list ---
-    private Map<String, Object> calculateAggregates(List<FuelEntry> entries) {
-        double totalLiters = entries.stream().mapToDouble(FuelEntry::getLiters).sum();
-        double totalSpend = entries.stream().mapToDouble(FuelEntry::getTotalAmount).sum();
+    // --- Helper: Calculate aggregates from per-vehicle rollup totals ---
+    private Map<String, Object> calculateAggregates(List<VehicleTotalsDto> totals) {
+        double totalLiters = 0;
+        double totalSpend = 0;
         int totalDistance = 0;
-        FuelEntry prev = null;
-        List<Double> consumptions = new ArrayList<>();
-        for (FuelEntry entry : entries) {
-            if (prev != null) {
-                int distance = prev.getOdometer() - entry.getOdometer();
-                totalDistance += distance;
-                if (distance > 0) {
-                    consumptions.add((entry.getLiters() / distance) * 100);
-                }
-            }
-            prev = entry;
+        for (VehicleTotalsDto vehicleTotals : totals) {
+            totalLiters += vehicleTotals.getTotalLiters();
+            totalSpend += vehicleTotals.getTotalSpend();
+            totalDistance += vehicleTotals.getMaxOdometer() - vehicleTotals.getMinOdometer();
         }
-        double avgConsumption = consumptions.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        double avgConsumption = totalDistance > 0 ? (totalLiters / totalDistance) * 100 : 0;
         double avgCostPerLiter = totalLiters > 0 ? totalSpend / totalLiters : 0;
         double avgCostPerKm = totalDistance > 0 ? totalSpend / totalDistance : 0;
         Map<String, Object> agg = new HashMap<>();
@@ -163,20 +191,34 @@ public class StatisticsService {
         return agg;
     }
 
-    // --- Helper: Calculate average consumption for grouped entries ---
-    private double calculateAvgConsumption(List<FuelEntry> entries) {
-        if (entries.size() <= 1) return 0;
-        double sum = 0;
-        int count = 0;
-        for (int i = 1; i < entries.size(); i++) {
-            FuelEntry prev = entries.get(i - 1);
-            FuelEntry curr = entries.get(i);
-            int distance = curr.getOdometer() - prev.getOdometer();
-            if (distance > 0) {
-                sum += (curr.getLiters() / distance) * 100;
-                count++;
-            }
+    // --- Helper: Single pass over per-fill rows, grouped by brand or grade ---
+    private List<Map<String, Object>> calculateGroupStats(List<FuelEntryPerFillView> views,
+                                                          Function<FuelEntryPerFillView, String> groupKey,
+                                                          String groupField) {
+        Map<String, FuelMetrics> metricsByGroup = new LinkedHashMap<>();
+        Map<String, FuelEntryPerFillView> latestByGroup = new HashMap<>();
+        for (FuelEntryPerFillView view : views) {
+            String key = groupKey.apply(view);
+            Integer distance = view.getDistanceSinceLast();
+            metricsByGroup.computeIfAbsent(key, k -> new FuelMetrics())
+                    .addFill(view.getDate().toEpochDay(), view.getOdometer(), view.getLiters(), view.getTotalAmount(),
+                            distance != null ? distance : FuelMetrics.NO_DISTANCE);
+            // Rows are in ascending order, so the last one seen is the group's latest fill
+            latestByGroup.put(key, view);
         }
-        return count > 0 ? sum / count : 0;
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Map.Entry<String, FuelMetrics> group : metricsByGroup.entrySet()) {
+            FuelMetrics metrics = group.getValue();
+            Double avgConsumption = metrics.getAvgPerFillConsumption();
+            Map<String, Object> stat = mapPerFillViewToMap(latestByGroup.get(group.getKey()), false);
+            stat.put("liters", metrics.getTotalLiters());
+            stat.put(groupField, group.getKey());
+            stat.put("avgCostPerLiter", metrics.getAvgCostPerLiter());
+            stat.put("avgConsumptionLPer100km", avgConsumption != null ? avgConsumption : 0);
+            stat.put("numFillUps", metrics.getFillUpCount());
+            stat.put("totalAmount", metrics.getTotalSpend());
+            stats.add(stat);
+        }
+        return stats;
     }
 }
@@ -1,10 +1,12 @@
 package com.team.codejam.service;
 
+import com.team.codejam.dto.UserSettingsUpdateRequestDto;
 import com.team.codejam.entity.User;
 import com.team.codejam.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,6 +16,8 @@ public class UserService {
     private UserRepository userRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private DataVersionService dataVersionService;
 
     public User registerUser(String email, String rawPassword) {
         if (userRepository.existsByEmail(email)) {
@@ -32,6 +36,21 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
+    // Settings are part of the profile, so the user's data version moves with them
+    @Transactional
+    public Optional<User> updateSettings(Long userId, UserSettingsUpdateRequestDto payload) {
+        return userRepository.findById(userId).map(user -> {
+            if (payload.getDisplayName() != null) user.setDisplayName(payload.getDisplayName());
+            if (payload.getCurrency() != null) user.setCurrency(payload.getCurrency());
+            if (payload.getDistanceUnit() != null) user.setDistanceUnit(payload.getDistanceUnit());
+            if (payload.getVolumeUnit() != null) user.setVolumeUnit(payload.getVolumeUnit());
+            if (payload.getTimeZone() != null) user.setTimeZone(payload.getTimeZone());
+            User saved = userRepository.save(user);
+            dataVersionService.bumpUser(userId);
+            return saved;
+        });
+    }
+
     private boolean isValidPassword(String password) {
         return password != null && password.length() >= 8 && password.matches(".*[A-Za-z].*") && password.matches(".*\\d.*");
     }
@@ -1,9 +1,12 @@
 package com.team.codejam.service;
 
+import com.team.codejam.cache.StatsResultCache;
+import com.team.codejam.cache.VehicleSeriesStore;
 import com.team.codejam.entity.Vehicle;
 import com.team.codejam.repository.VehicleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -11,17 +14,43 @@ import java.util.List;
 public class VehicleService {
     @Autowired
     private VehicleRepository vehicleRepository;
+    @Autowired
+    private FuelRollupService fuelRollupService;
+    @Autowired
+    private VehicleSeriesStore seriesStore;
+    @Autowired
+    private DataVersionService dataVersionService;
+    @Autowired
+    private StatsResultCache statsResultCache;
+    @Autowired
+    private VehicleWriteLocks vehicleWriteLocks;
 
     public List<Vehicle> getVehiclesForUser(Long userId) {
         return vehicleRepository.findByUserId(userId);
     }
 
+    @Transactional
     public Vehicle addVehicle(Vehicle vehicle) {
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        dataVersionService.bumpUser(saved.getUser().getId());
+        return saved;
     }
 
-    public void deleteVehicle(Long vehicleId) {
-        vehicleRepository.deleteById(vehicleId);
+    /**
+     * Deletes the user's vehicle with its fills and rollups; false if the user has no such vehicle.
+     */
+    public boolean deleteVehicle(Long userId, Long vehicleId) {
+        // Waits for fill-up writers of the vehicle, whose rollups would otherwise outlive it
+        return vehicleWriteLocks.inTransaction(vehicleId, () -> {
+            Vehicle vehicle = vehicleRepository.findById(vehicleId).orElse(null);
+            if (vehicle == null || !vehicle.getUser().getId().equals(userId)) return false;
+            fuelRollupService.deleteVehicle(vehicleId);
+            vehicleRepository.delete(vehicle);
+            dataVersionService.bumpUser(userId);
+            seriesStore.evict(vehicleId);
+            statsResultCache.evict(userId, vehicleId);
+            return true;
+        });
     }
 }
 
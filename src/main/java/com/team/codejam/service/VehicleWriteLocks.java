@@ -0,0 +1,76 @@
+package com.team.codejam.service;
+
+import com.team.codejam.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes the writers of one vehicle's fill history, so an odometer check and the insert it allows
+ * cannot interleave with another writer's. Two levels, both held until the writer's transaction has
+ * completed:
+ * <ul>
+ *     <li>a striped in-process lock, taken before the transaction begins, so writers queued on this node
+ *     hold neither a pooled connection nor a database lock while they wait;</li>
+ *     <li>a row lock on the vehicle, the transaction's first statement, which also covers writers on other nodes.</li>
+ * </ul>
+ * With open-in-view a request keeps the connection of its first query until it ends, so the write paths
+ * issue no query through the entity manager before they get here. Writers of different vehicles only meet
+ * when their ids share a stripe. ReentrantLock rather than synchronized, so a waiting virtual thread does
+ * not pin its carrier.
+ */
+@Component
+public class VehicleWriteLocks {
+    private final VehicleRepository vehicleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+
+    public VehicleWriteLocks(VehicleRepository vehicleRepository, TransactionTemplate transactionTemplate,
+                             @Value("${codejam.vehicle-locks.stripes:64}") int stripes) {
+        if (stripes <= 0) throw new IllegalArgumentException("codejam.vehicle-locks.stripes must be positive");
+        this.vehicleRepository = vehicleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) this.stripes[i] = new ReentrantLock();
+    }
+
+    public <T> T inTransaction(Long vehicleId, Supplier<T> work) {
+        return inTransaction(List.of(vehicleId), work);
+    }
+
+    /**
+     * Runs work in a transaction holding the write locks of several vehicles. Stripes are taken in index
+     * order and rows in id order, so writers locking overlapping sets cannot deadlock each other. Vehicles
+     * that do not exist have no row to lock; work checks the vehicles it writes to.
+     */
+    public <T> T inTransaction(Collection<Long> vehicleIds, Supplier<T> work) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Long vehicleId : vehicleIds) stripeIndexes.add(stripe(vehicleId));
+        List<ReentrantLock> held = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int index : stripeIndexes) {
+                ReentrantLock lock = stripes[index];
+                lock.lock();
+                held.add(lock);
+            }
+            return transactionTemplate.execute(status -> {
+                for (Long vehicleId : new TreeSet<>(vehicleIds)) vehicleRepository.lockForUpdate(vehicleId);
+                return work.get();
+            });
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) held.get(i).unlock();
+        }
+    }
+
+    private int stripe(Long vehicleId) {
+        // Fibonacci hashing spreads sequential ids over all stripes
+        return Math.floorMod(Long.hashCode(vehicleId * 0x9E3779B97F4A7C15L), stripes.length);
+    }
+}
@@ -43,4 +43,12 @@ public class FuelEntrySpecification {
             return predicate;
         };
     }
+
+    // Entries strictly after the cursor in (date, id) order; combine with filter(...) for seek pagination
+    public static Specification<FuelEntry> after(FuelEntryCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("date"), cursor.date()),
+                cb.and(cb.equal(root.get("date"), cursor.date()), cb.greaterThan(root.get("id"), cursor.id()))
+        );
+    }
 }
@@ -0,0 +1,100 @@
+package com.team.codejam.cache;
+
+import com.team.codejam.dto.FuelEntryPointDto;
+import com.team.codejam.dto.VehicleTotalsDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleSeriesTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void withFill_ShouldKeepDateOrderAndLeaveSnapshotUntouched_WhenFillIsInsertedInThePast() {
+        // Given
+        VehicleSeries original = VehicleSeries.of(1L, 9L, 0L, List.of(
+                point(DAY, 1000, "Shell", "95"),
+                point(DAY.plusDays(10), 1600, "Shell", "95")));
+
+        // When
+        VehicleSeries updated = original.withFill(1L, DAY.plusDays(5), 1300, 30, 60, "Aral", "98", "Center");
+
+        // Then
+        assertEquals(2, original.size());
+        assertEquals(3, updated.size());
+        assertEquals(1300, updated.odometer(1));
+        assertEquals("Aral", updated.brand(1));
+        assertEquals("98", updated.grade(1));
+        assertEquals("Center", updated.station(1));
+        assertEquals("Shell", updated.brand(2));
+        assertEquals(1L, updated.getVersion());
+        VehicleSeries replayed = updated.withFill(2L, DAY.plusDays(5), 1300, 30, 60, "Aral", "98", "Center");
+        assertEquals(3, replayed.size());
+        assertEquals(2L, replayed.getVersion());
+    }
+
+    @Test
+    void withoutFill_ShouldRemoveOnlyMatchingFill_WhenSeveralFillsShareADay() {
+        // Given
+        VehicleSeries series = VehicleSeries.of(1L, 9L, 0L, List.of(
+                point(DAY, 1000, null, null),
+                point(DAY, 1200, null, null),
+                point(DAY.plusDays(1), 1500, null, null)));
+
+        // When
+        VehicleSeries updated = series.withoutFill(1L, DAY, 1200);
+
+        // Then
+        assertEquals(2, updated.size());
+        assertEquals(1000, updated.odometer(0));
+        assertEquals(1500, updated.odometer(1));
+        assertNull(updated.brand(0));
+        assertEquals(2, updated.withoutFill(2L, DAY, 1200).size());
+    }
+
+    @Test
+    void totals_ShouldOnlyCoverFillsInRange_WhenBoundsFallBetweenFills() {
+        // Given
+        List<FuelEntryPointDto> points = new ArrayList<>();
+        for (int i = 0; i < 10; i++) points.add(point(DAY.plusDays(i * 3L), 1000 + i * 400, "Shell", "95"));
+        VehicleSeries series = VehicleSeries.of(1L, 9L, 0L, points);
+
+        // When
+        VehicleTotalsDto totals = series.totals(DAY.plusDays(4), DAY.plusDays(13));
+
+        // Then
+        assertEquals(3, totals.getFillUpCount());
+        assertEquals(1800, totals.getMinOdometer());
+        assertEquals(2600, totals.getMaxOdometer());
+        assertEquals(120, totals.getTotalLiters(), 1e-9);
+        assertEquals(DAY.plusDays(6), totals.getFirstDate());
+        assertEquals(DAY.plusDays(12), totals.getLastDate());
+        assertNull(series.totals(DAY.plusDays(100), null));
+    }
+
+    @Test
+    void totals_ShouldMatchDirectSum_WhenSnapshotWasCopiedWithNewFill() {
+        // Given
+        VehicleSeries series = VehicleSeries.of(1L, 9L, 0L, List.of(
+                point(DAY, 1000, null, null),
+                point(DAY.plusDays(20), 2000, null, null)));
+
+        // When
+        VehicleSeries updated = series.withFill(1L, DAY.plusDays(10), 1500, 25.5, 51.25, null, null, null);
+        VehicleTotalsDto totals = updated.totals(DAY.plusDays(1), null);
+
+        // Then
+        assertEquals(2, totals.getFillUpCount());
+        assertEquals(65.5, totals.getTotalLiters(), 1e-9);
+        assertEquals(131.25, totals.getTotalSpend(), 1e-9);
+        assertEquals(500, totals.getMaxOdometer() - totals.getMinOdometer());
+    }
+
+    private static FuelEntryPointDto point(LocalDate date, int odometer, String brand, String grade) {
+        return new FuelEntryPointDto(1L, date, odometer, 40.0, 80.0, brand, grade, null);
+    }
+}
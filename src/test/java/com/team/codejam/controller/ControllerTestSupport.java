@@ -0,0 +1,143 @@
+package com.team.codejam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team.codejam.config.RequestLoadMetricsFilter;
+import com.team.codejam.entity.User;
+import com.team.codejam.entity.Vehicle;
+import com.team.codejam.repository.UserRepository;
+import com.team.codejam.repository.VehicleRepository;
+import com.team.codejam.security.AppUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Base of the controller tests that run against the whole application: MockMvc with the request load
+ * filter, so the X-Query-Count and X-Rows-Fetched headers are set, factories for users, vehicles and
+ * stored fills, and a cleanup of every table they write.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+abstract class ControllerTestSupport {
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private RequestLoadMetricsFilter requestLoadMetricsFilter;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected VehicleRepository vehicleRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    protected MockMvc mockMvc;
+
+    @BeforeEach
+    void setUpMockMvc() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(requestLoadMetricsFilter)
+                .build();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("delete from fuel_daily_rollups");
+        jdbcTemplate.update("delete from fuel_monthly_rollups");
+        jdbcTemplate.update("delete from fuel_entries");
+        jdbcTemplate.update("delete from vehicles");
+        jdbcTemplate.update("delete from users");
+    }
+
+    protected User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        return userRepository.save(user);
+    }
+
+    // Returns the vehicle id
+    protected Long vehicle(User user, String name) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName(name);
+        vehicle.setUser(user);
+        return vehicleRepository.save(vehicle).getId();
+    }
+
+    // Stored behind the services' back: no odometer validation, rollups or data version bumps
+    protected void insertFills(User user, Long vehicleId, List<Fill> fills) {
+        List<Object[]> rows = new ArrayList<>(fills.size());
+        for (Fill fill : fills) {
+            rows.add(new Object[]{vehicleId, user.getId(), Date.valueOf(fill.date()), fill.odometer(), fill.fuelBrand(),
+                    fill.fuelGrade(), fill.stationName(), fill.liters(), fill.totalAmount()});
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into fuel_entries (vehicle_id, user_id, date, odometer, fuel_brand, fuel_grade, station_name, liters, total_amount)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, rows);
+    }
+
+    // The fuel entry and statistics endpoints read the security context; the others read the session
+    protected void signIn(User user) {
+        AppUserDetails userDetails = new AppUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    protected static MockHttpSession session(User user) {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("userId", user.getId());
+        return session;
+    }
+
+    protected MockHttpServletResponse perform(RequestBuilder request, int status) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        assertEquals(status, response.getStatus(), response.getContentAsString());
+        return response;
+    }
+
+    protected JsonNode json(RequestBuilder request) throws Exception {
+        return objectMapper.readTree(perform(request, 200).getContentAsString());
+    }
+
+    protected static long queryCount(MockHttpServletResponse response) {
+        String header = response.getHeader(RequestLoadMetricsFilter.QUERY_COUNT_HEADER);
+        assertTrue(header != null, "No " + RequestLoadMetricsFilter.QUERY_COUNT_HEADER + " header");
+        return Long.parseLong(header);
+    }
+
+    protected record Fill(LocalDate date, int odometer, String stationName, String fuelBrand, String fuelGrade,
+                          double liters, double totalAmount) {
+        // 40 liters for 70 of no particular brand
+        static Fill of(LocalDate date, int odometer, String stationName) {
+            return new Fill(date, odometer, stationName, null, null, 40.0, 70.0);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.team.codejam.controller;
+
+import com.team.codejam.config.RequestLoadMetricsFilter;
+import com.team.codejam.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class DataVersionETagsTest extends ControllerTestSupport {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void getDashboard_ShouldReturnNotModifiedWithoutReadingEntries_WhenETagMatches() throws Exception {
+        // Given
+        User user = user("etag@example.com");
+        vehicleWithFills(user, "Car");
+        signIn(user);
+        String etag = perform(get("/api/fuel-entries/dashboard"), 200).getHeader(HttpHeaders.ETAG);
+
+        // When
+        MockHttpServletResponse response = perform(get("/api/fuel-entries/dashboard")
+                .header(HttpHeaders.IF_NONE_MATCH, etag), 304);
+
+        // Then
+        assertEquals("", response.getContentAsString());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        // Only the version lookup
+        assertEquals("1", response.getHeader(RequestLoadMetricsFilter.QUERY_COUNT_HEADER));
+    }
+
+    @Test
+    void getDashboard_ShouldChangeETag_WhenVehicleGetsEntry() throws Exception {
+        // Given
+        User user = user("etag-write@example.com");
+        Long car = vehicleWithFills(user, "Car");
+        Long van = vehicleWithFills(user, "Van");
+        signIn(user);
+        String allETag = perform(get("/api/fuel-entries/dashboard"), 200).getHeader(HttpHeaders.ETAG);
+        String carETag = perform(get("/api/fuel-entries/dashboard?vehicleId=" + car), 200).getHeader(HttpHeaders.ETAG);
+        String vanETag = perform(get("/api/fuel-entries/dashboard?vehicleId=" + van), 200).getHeader(HttpHeaders.ETAG);
+
+        // When
+        perform(post("/api/fuel-entries").contentType(MediaType.APPLICATION_JSON).content("""
+                {"vehicleId": %d, "date": "%s", "odometer": 11000, "stationName": "Station",
+                 "fuelBrand": "Shell", "fuelGrade": "95", "liters": 40.0, "totalAmount": 70.0}
+                """.formatted(car, DAY.plusDays(30))), 200);
+
+        // Then
+        perform(get("/api/fuel-entries/dashboard").header(HttpHeaders.IF_NONE_MATCH, allETag), 200);
+        perform(get("/api/fuel-entries/dashboard?vehicleId=" + car).header(HttpHeaders.IF_NONE_MATCH, carETag), 200);
+        perform(get("/api/fuel-entries/dashboard?vehicleId=" + van).header(HttpHeaders.IF_NONE_MATCH, vanETag), 304);
+    }
+
+    @Test
+    void getProfile_ShouldChangeETag_WhenSettingsAreUpdated() throws Exception {
+        // Given
+        User user = user("etag-settings@example.com");
+        MockHttpSession session = session(user);
+        String etag = perform(get("/api/user/profile").session(session), 200).getHeader(HttpHeaders.ETAG);
+
+        // When
+        perform(put("/api/user/settings").session(session)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"currency\": \"EUR\"}"), 200);
+
+        // Then
+        MockHttpServletResponse response = perform(get("/api/user/profile").session(session)
+                .header(HttpHeaders.IF_NONE_MATCH, etag), 200);
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsString().contains("EUR"));
+    }
+
+    // Two fills ten days apart; returns the vehicle id
+    private Long vehicleWithFills(User user, String name) {
+        Long vehicleId = vehicle(user, name);
+        insertFills(user, vehicleId, List.of(Fill.of(DAY, 10_000, "Station"), Fill.of(DAY.plusDays(10), 10_500, "Station")));
+        return vehicleId;
+    }
+}
@@ -0,0 +1,85 @@
+package com.team.codejam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.team.codejam.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class FuelEntryExportTest extends ControllerTestSupport {
+    // More than two detach rounds of the export
+    private static final int FILLS = 1_200;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    @Test
+    void export_ShouldStreamSameRowsAsHistory_WhenFormatIsNdjson() throws Exception {
+        // Given
+        Long vehicleId = vehicleWithHistory("export@example.com");
+        JsonNode history = json(get("/api/fuel-entries/vehicle/" + vehicleId));
+
+        // When
+        MockHttpServletResponse response = export("/api/fuel-entries/export?vehicleId=" + vehicleId);
+
+        // Then
+        assertEquals("application/x-ndjson", response.getContentType());
+        ArrayNode exported = objectMapper.createArrayNode();
+        for (String line : response.getContentAsString().split("\n")) {
+            exported.add(objectMapper.readTree(line));
+        }
+        assertEquals(FILLS, exported.size());
+        assertEquals(history, exported);
+    }
+
+    @Test
+    void export_ShouldMeasureFirstRowFromFillBeforeRange_WhenFormatIsCsv() throws Exception {
+        // Given
+        Long vehicleId = vehicleWithHistory("export-csv@example.com");
+        LocalDate start = FIRST_DAY.plusDays(3L * 1_000);
+
+        // When
+        MockHttpServletResponse response = export("/api/fuel-entries/export?format=csv&vehicleId=" + vehicleId
+                + "&startDate=" + start);
+
+        // Then
+        String[] lines = response.getContentAsString().split("\r\n");
+        assertTrue(response.getContentType().startsWith("text/csv"));
+        assertTrue(response.getHeader("Content-Disposition").contains("fuel-history.csv"));
+        assertEquals("id,vehicleId,date,odometer,stationName,fuelBrand,fuelGrade,liters,totalAmount,notes,"
+                + "distanceSinceLast,unitPrice,costPerKm,efficiencyMetric,efficiencyImperial", lines[0]);
+        assertEquals(1 + FILLS - 1_000, lines.length);
+        String[] first = lines[1].split(",", -1);
+        assertEquals(start.toString(), first[2]);
+        assertEquals("\"Station, 1\"", first[4] + "," + first[5]);
+        assertEquals("450.0", first[11]);
+    }
+
+    private MockHttpServletResponse export(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse();
+        assertEquals(200, response.getStatus());
+        return response;
+    }
+
+    // One fill every three days with a station name that needs quoting in CSV; returns the signed-in user's vehicle
+    private Long vehicleWithHistory(String email) {
+        User user = user(email);
+        Long vehicleId = vehicle(user, "Car");
+        List<Fill> fills = new ArrayList<>();
+        for (int i = 0; i < FILLS; i++) {
+            fills.add(Fill.of(FIRST_DAY.plusDays(3L * i), 10_000 + i * 450, "Station, " + i % 3));
+        }
+        insertFills(user, vehicleId, fills);
+        signIn(user);
+        return vehicleId;
+    }
+}
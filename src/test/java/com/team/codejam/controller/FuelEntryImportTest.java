@@ -0,0 +1,89 @@
+package com.team.codejam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.team.codejam.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FuelEntryImportTest extends ControllerTestSupport {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void importEntries_ShouldStoreValidRowsAndReportOthers_WhenRowsAreUnsorted() throws Exception {
+        // Given: stored fills on days 10, 20 and 30 at 1000, 2000 and 3000 km
+        Long vehicleId = vehicleWithHistory("import@example.com");
+        String csv = "vehicleId,date,odometer,stationName,liters,totalAmount,notes,unitPrice\r\n"
+                + row(vehicleId, 25, 2500, "A", "40", "70", "") + "\r\n"
+                + row(vehicleId, 40, 4000, "B", "40", "70", "") + "\r\n"
+                + row(vehicleId, 35, 3500, "C", "40", "70", "") + "\r\n"
+                // line 5: below the stored fill of day 20
+                + row(vehicleId, 15, 2100, "D", "40", "70", "") + "\r\n"
+                // line 6
+                + row(vehicleId, 36, 3600, "E", "-1", "70", "") + "\r\n"
+                // lines 7-8: one record with a quoted comma and line break
+                + row(vehicleId, 50, 5000, "\"Shell, Main St\"", "40", "70", "\"first\r\nline\"") + "\r\n"
+                // line 9: below the imported fill of day 40
+                + row(vehicleId, 45, 3900, "F", "40", "70", "") + "\r\n"
+                // line 10
+                + row(vehicleId + 1000, 55, 6000, "G", "40", "70", "") + "\r\n";
+
+        // When
+        JsonNode result = json(multipart("/api/fuel-entries/import")
+                .file(new MockMultipartFile("file", "history.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8))));
+
+        // Then
+        assertEquals(4, result.get("importedCount").asInt());
+        assertEquals(4, result.get("rejectedCount").asInt());
+        List<Long> lines = new ArrayList<>();
+        result.get("errors").forEach(error -> lines.add(error.get("line").asLong()));
+        assertEquals(List.of(5L, 6L, 9L, 10L), lines);
+        assertEquals("Odometer must be less than next entry for this vehicle", result.get("errors").get(0).get("message").asText());
+        assertEquals("Liters must be positive", result.get("errors").get(1).get("message").asText());
+
+        JsonNode history = json(get("/api/fuel-entries/vehicle/" + vehicleId));
+        assertEquals(7, history.size());
+        assertEquals("Shell, Main St", history.get(6).get("stationName").asText());
+        assertEquals("first\r\nline", history.get(6).get("notes").asText());
+        assertEquals(7, jdbcTemplate.queryForObject("select count(*) from fuel_daily_rollups where vehicle_id = ?",
+                Integer.class, vehicleId));
+    }
+
+    @Test
+    void importEntries_ShouldReturnBadRequest_WhenRequiredColumnIsMissing() throws Exception {
+        // Given
+        Long vehicleId = vehicleWithHistory("import-columns@example.com");
+        String csv = "date,odometer,liters\n2024-03-10,4000,40\n";
+
+        // When / Then
+        mockMvc.perform(multipart("/api/fuel-entries/import").param("vehicleId", vehicleId.toString())
+                        .file(new MockMultipartFile("file", "history.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isBadRequest());
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from fuel_entries", Integer.class));
+    }
+
+    private static String row(Long vehicleId, int day, int odometer, String station, String liters, String amount, String notes) {
+        return String.join(",", vehicleId.toString(), DAY.plusDays(day).toString(), Integer.toString(odometer), station,
+                liters, amount, notes, "1.75");
+    }
+
+    // Three stored fills; returns the signed-in user's vehicle
+    private Long vehicleWithHistory(String email) {
+        User user = user(email);
+        Long vehicleId = vehicle(user, "Car");
+        List<Fill> fills = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) fills.add(Fill.of(DAY.plusDays(10L * i), 1_000 * i, "Stored"));
+        insertFills(user, vehicleId, fills);
+        signIn(user);
+        return vehicleId;
+    }
+}
@@ -0,0 +1,110 @@
+package com.team.codejam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.team.codejam.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FuelEntryUpdateTest extends ControllerTestSupport {
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Test
+    void updateEntry_ShouldMoveEntryBetweenNeighbours_WhenOdometerFitsNewDate() throws Exception {
+        // Given: fills on days 0, 10, 20 and 30 at 1000, 2000, 3000 and 4000 km
+        Long vehicleId = vehicleWithHistory("update@example.com");
+        Long secondId = entryId(vehicleId, 1);
+
+        // When: the second fill moves past the third
+        mockMvc.perform(put("/api/fuel-entries/" + secondId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(entry(vehicleId, 25, 3500))))
+                .andExpect(status().isOk());
+
+        // Then
+        JsonNode history = json(get("/api/fuel-entries/vehicle/" + vehicleId));
+        assertEquals(secondId.longValue(), history.get(2).get("id").asLong());
+        assertEquals(3500, history.get(2).get("odometer").asInt());
+        assertEquals(2000.0, history.get(1).get("distanceSinceLast").asDouble());
+        assertEquals(500.0, history.get(2).get("distanceSinceLast").asDouble());
+    }
+
+    @Test
+    void updateEntry_ShouldReturnBadRequest_WhenOdometerReachesNextEntry() throws Exception {
+        // Given
+        Long vehicleId = vehicleWithHistory("update-next@example.com");
+        Long secondId = entryId(vehicleId, 1);
+
+        // When / Then: its own odometer does not count as a neighbour, the third fill's does
+        mockMvc.perform(put("/api/fuel-entries/" + secondId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(entry(vehicleId, 10, 2000))))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/fuel-entries/" + secondId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(entry(vehicleId, 10, 3000))))
+                .andExpect(status().isBadRequest());
+        assertEquals(2000, jdbcTemplate.queryForObject("select odometer from fuel_entries where id = ?", Integer.class, secondId));
+    }
+
+    @Test
+    void deleteEntry_ShouldReturnNotFound_WhenEntryBelongsToAnotherUser() throws Exception {
+        // Given
+        Long vehicleId = vehicleWithHistory("delete-owner@example.com");
+        User otherUser = user("delete-other@example.com");
+        Long firstId = entryId(vehicleId, 0);
+
+        // When / Then
+        perform(delete("/api/fuel-entries/" + firstId).session(session(otherUser)), 404);
+        assertEquals(4, jdbcTemplate.queryForObject("select count(*) from fuel_entries where vehicle_id = ?", Integer.class, vehicleId));
+    }
+
+    @Test
+    void addEntry_ShouldReturnBadRequest_WhenVehicleBelongsToAnotherUser() throws Exception {
+        // Given
+        Long vehicleId = vehicleWithHistory("add-owner@example.com");
+        signIn(user("add-other@example.com"));
+
+        // When / Then
+        perform(post("/api/fuel-entries").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(entry(vehicleId, 40, 5000))), 400);
+        assertEquals(4, jdbcTemplate.queryForObject("select count(*) from fuel_entries where vehicle_id = ?", Integer.class, vehicleId));
+    }
+
+    private static Map<String, Object> entry(Long vehicleId, int day, int odometer) {
+        return Map.of(
+                "vehicleId", vehicleId,
+                "date", DAY.plusDays(day).toString(),
+                "odometer", odometer,
+                "stationName", "Edited",
+                "liters", 40.0,
+                "totalAmount", 70.0);
+    }
+
+    private Long entryId(Long vehicleId, int index) {
+        return jdbcTemplate.queryForList("select id from fuel_entries where vehicle_id = ? order by date", Long.class, vehicleId)
+                .get(index);
+    }
+
+    // Four stored fills ten days apart; returns the signed-in user's vehicle
+    private Long vehicleWithHistory(String email) {
+        User user = user(email);
+        Long vehicleId = vehicle(user, "Car");
+        List<Fill> fills = new ArrayList<>();
+        for (int i = 0; i < 4; i++) fills.add(Fill.of(DAY.plusDays(10L * i), 1_000 * (i + 1), "Stored"));
+        insertFills(user, vehicleId, fills);
+        signIn(user);
+        return vehicleId;
+    }
+}
@@ -0,0 +1,106 @@
+package com.team.codejam.controller;
+
+import com.team.codejam.config.RequestLoadMetricsFilter;
+import com.team.codejam.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Query budgets per endpoint, read from the X-Query-Count header the test profile turns on. Each test
+ * runs an endpoint against a small and a large data set: a count that grows with the data is an N+1.
+ */
+class QueryBudgetTest extends ControllerTestSupport {
+    private static final int PROFILE_BUDGET = 1;
+    private static final int ADD_ENTRY_BUDGET = 25;
+    // Rows a month's rollup reads plus a handful of lookups; far below the long history below
+    private static final int ADD_ENTRY_ROWS_BUDGET = 100;
+
+    @Test
+    void getProfile_ShouldNotQueryPerVehicle_WhenUserHasManyVehicles() throws Exception {
+        // Given
+        User oneVehicle = user("budget-one@example.com", 1);
+        User tenVehicles = user("budget-ten@example.com", 10);
+
+        // When
+        long oneVehicleQueries = queryCount(perform(get("/api/user/profile").session(session(oneVehicle)), 200));
+        long tenVehicleQueries = queryCount(perform(get("/api/user/profile").session(session(tenVehicles)), 200));
+
+        // Then
+        assertEquals(oneVehicleQueries, tenVehicleQueries, "Profile queries grow with the number of vehicles");
+        assertTrue(tenVehicleQueries <= PROFILE_BUDGET, "Profile used " + tenVehicleQueries + " queries");
+    }
+
+    @Test
+    void addEntry_ShouldStayWithinQueryBudget_RegardlessOfHistoryLength() throws Exception {
+        // Given
+        User shortHistory = user("budget-short@example.com", 1);
+        User longHistory = user("budget-long@example.com", 1);
+        Long shortVehicle = history(shortHistory, 3);
+        Long longVehicle = history(longHistory, 60);
+
+        // When
+        long shortHistoryQueries = queryCount(addEntry(shortHistory, shortVehicle));
+        long longHistoryQueries = queryCount(addEntry(longHistory, longVehicle));
+
+        // Then
+        assertEquals(shortHistoryQueries, longHistoryQueries, "Adding an entry queries per existing entry");
+        assertTrue(longHistoryQueries <= ADD_ENTRY_BUDGET, "Adding an entry used " + longHistoryQueries + " queries");
+    }
+
+    @Test
+    void addEntry_ShouldNotReadWholeHistory_WhenValidatingOdometer() throws Exception {
+        // Given
+        User user = user("budget-rows@example.com", 1);
+        Long vehicleId = history(user, 400);
+
+        // When
+        MockHttpServletResponse response = addEntry(user, vehicleId);
+
+        // Then
+        long rowsFetched = Long.parseLong(response.getHeader(RequestLoadMetricsFilter.ROWS_FETCHED_HEADER));
+        assertTrue(rowsFetched <= ADD_ENTRY_ROWS_BUDGET, "Adding an entry fetched " + rowsFetched + " rows");
+    }
+
+    private MockHttpServletResponse addEntry(User user, Long vehicleId) throws Exception {
+        signIn(user);
+        Map<String, Object> entry = Map.of(
+                "vehicleId", vehicleId,
+                "date", LocalDate.now().toString(),
+                "odometer", 900_000,
+                "stationName", "Budget Station",
+                "liters", 40.0,
+                "totalAmount", 70.0);
+        return perform(post("/api/fuel-entries")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(entry))
+                .session(session(user)), 200);
+    }
+
+    private User user(String email, int vehicles) {
+        User user = user(email);
+        for (int i = 0; i < vehicles; i++) vehicle(user, "Car " + i);
+        return user;
+    }
+
+    // Fills on the days before today for the user's vehicle; returns the vehicle id
+    private Long history(User user, int fills) {
+        Long vehicleId = vehicleRepository.findByUserId(user.getId()).getFirst().getId();
+        List<Fill> rows = new ArrayList<>();
+        for (int i = 0; i < fills; i++) {
+            rows.add(Fill.of(LocalDate.now().minusDays(fills - i), 10_000 + i * 500, "Station"));
+        }
+        insertFills(user, vehicleId, rows);
+        return vehicleId;
+    }
+}
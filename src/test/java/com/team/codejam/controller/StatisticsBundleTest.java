@@ -0,0 +1,79 @@
+package com.team.codejam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.team.codejam.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class StatisticsBundleTest extends ControllerTestSupport {
+    private static final LocalDate END = LocalDate.of(2024, 6, 30);
+
+    @Test
+    void getBundle_ShouldMatchSeparateEndpoints_WhenRangeStartsMidHistory() throws Exception {
+        // Given
+        User user = user("bundle@example.com");
+        Long first = vehicle(user, "First", 30);
+        vehicle(user, "Second", 20);
+        String range = "startDate=" + END.minusDays(45) + "&endDate=" + END;
+        signIn(user);
+
+        // When
+        JsonNode bundle = json(get("/api/statistics/bundle?" + range));
+        JsonNode vehicleBundle = json(get("/api/statistics/bundle?vehicleId=" + first + "&" + range));
+
+        // Then
+        assertEquals(json(get("/api/fuel-entries/dashboard?" + range)), bundle.get("dashboard"));
+        assertEquals(json(get("/api/fuel-entries/per-fill?" + range)), bundle.get("perFill"));
+        assertEquals(json(get("/api/fuel-entries/brand-grade-comparison?" + range)), bundle.get("brandGradeComparison"));
+        assertEquals(2, bundle.get("vehicles").size());
+        assertEquals(json(get("/api/fuel-entries/per-fill?vehicleId=" + first + "&" + range)), vehicleBundle.get("perFill"));
+        assertTrue(bundle.get("perFill").size() > 0, "Range holds no fills");
+    }
+
+    @Test
+    void getBundle_ShouldQueryLessThanSeparateEndpoints() throws Exception {
+        // Given
+        User user = user("bundle-budget@example.com");
+        vehicle(user, "Budget", 30);
+        String range = "startDate=" + END.minusDays(45) + "&endDate=" + END;
+        signIn(user);
+
+        // Loads the vehicle's series, so both sides below find it in memory
+        perform(get("/api/fuel-entries/dashboard"), 200);
+
+        // When
+        long bundleQueries = queries(get("/api/statistics/bundle?" + range));
+        long separateQueries = queries(get("/api/fuel-entries/dashboard?" + range))
+                + queries(get("/api/fuel-entries/per-fill?" + range))
+                + queries(get("/api/fuel-entries/brand-grade-comparison?" + range))
+                + queries(get("/api/vehicles").session(session(user)));
+
+        // Then
+        assertTrue(bundleQueries < separateQueries,
+                "Bundle used " + bundleQueries + " queries, the separate calls " + separateQueries);
+    }
+
+    private long queries(RequestBuilder request) throws Exception {
+        return queryCount(perform(request, 200));
+    }
+
+    // One fill every three days up to END, alternating brand and grade; returns the vehicle id
+    private Long vehicle(User user, String name, int fills) {
+        Long vehicleId = vehicle(user, name);
+        List<Fill> rows = new ArrayList<>();
+        for (int i = 0; i < fills; i++) {
+            rows.add(new Fill(END.minusDays(3L * (fills - 1 - i)), 10_000 + i * 450 + (i % 4) * 20, "Station " + i % 3,
+                    i % 2 == 0 ? "Shell" : "BP", i % 3 == 0 ? "98" : "95", 35.0 + i % 5, 60.0 + i % 7));
+        }
+        insertFills(user, vehicleId, rows);
+        return vehicleId;
+    }
+}
@@ -0,0 +1,43 @@
+package com.team.codejam.controller;
+
+import com.team.codejam.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+
+class VehicleControllerTest extends ControllerTestSupport {
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Test
+    void deleteVehicle_ShouldReturnNotFound_WhenVehicleBelongsToAnotherUser() throws Exception {
+        // Given
+        User owner = user("vehicle-owner@example.com");
+        User otherUser = user("vehicle-other@example.com");
+        Long vehicleId = vehicle(owner, "Car");
+        insertFills(owner, vehicleId, List.of(Fill.of(DAY, 1_000, "Stored")));
+
+        // When / Then
+        perform(delete("/api/vehicles/" + vehicleId).session(session(otherUser)), 404);
+        assertTrue(vehicleRepository.existsById(vehicleId));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from fuel_entries where vehicle_id = ?", Integer.class, vehicleId));
+    }
+
+    @Test
+    void deleteVehicle_ShouldDeleteVehicleAndFills_WhenUserOwnsIt() throws Exception {
+        // Given
+        User owner = user("vehicle-delete@example.com");
+        Long vehicleId = vehicle(owner, "Car");
+        insertFills(owner, vehicleId, List.of(Fill.of(DAY, 1_000, "Stored")));
+
+        // When
+        perform(delete("/api/vehicles/" + vehicleId).session(session(owner)), 200);
+
+        // Then
+        assertFalse(vehicleRepository.existsById(vehicleId));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from fuel_entries where vehicle_id = ?", Integer.class, vehicleId));
+    }
+}
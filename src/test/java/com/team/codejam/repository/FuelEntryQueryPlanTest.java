@@ -0,0 +1,248 @@
+package com.team.codejam.repository;
+
+import com.team.codejam.entity.FuelEntry;
+import com.team.codejam.entity.User;
+import com.team.codejam.entity.Vehicle;
+import com.team.codejam.specification.FuelEntryCursor;
+import com.team.codejam.specification.FuelEntrySpecification;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every fuel_entries access path against a seeded H2 database and fails when the plan of any
+ * statement it issues falls back to a full table scan. The schema and its indexes come from the
+ * Liquibase changelog, as in production; dialect-specific changesets apply in their non-PostgreSQL
+ * variant. Each statement is explained with the values the call bound to it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plandb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.liquibase.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "codejam.rollups.backfill-on-startup=false"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FuelEntryQueryPlanTest {
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final String[] BRANDS = {"Shell", "BP", "Aral", "Esso"};
+    private static final String[] GRADES = {"95", "98", "Diesel"};
+
+    @Autowired
+    private FuelEntryRepository fuelEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Long userId;
+    private Long vehicleId;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int u = 0; u < 20; u++) {
+            User user = new User();
+            user.setEmail("plan" + u + "@example.com");
+            user.setPasswordHash("hash");
+            user = userRepository.save(user);
+            for (int v = 0; v < 3; v++) {
+                Vehicle vehicle = new Vehicle();
+                vehicle.setName("Car " + v);
+                vehicle.setUser(user);
+                vehicle = vehicleRepository.save(vehicle);
+                if (userId == null) {
+                    userId = user.getId();
+                    vehicleId = vehicle.getId();
+                }
+                for (int i = 0; i < 100; i++) {
+                    rows.add(new Object[]{vehicle.getId(), user.getId(), Date.valueOf(START.plusDays(i * 4L)), 1000 + i * 450,
+                            "Station " + (i % 7), BRANDS[i % BRANDS.length], GRADES[i % GRADES.length], 40.0, 72.0});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into fuel_entries (vehicle_id, user_id, date, odometer, station_name, fuel_brand, fuel_grade, liters, total_amount)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("delete from fuel_entries");
+        jdbcTemplate.update("delete from vehicles");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void derivedFinders_ShouldUseIndexes_WhenFilteringByVehicleAndUser() throws Exception {
+        LocalDate from = START.plusDays(30);
+        LocalDate to = START.plusDays(90);
+        assertIndexed(() -> fuelEntryRepository.findByVehicleIdOrderByDateDesc(vehicleId));
+        assertIndexed(() -> fuelEntryRepository.findByVehicleIdOrderByDateAsc(vehicleId));
+        assertIndexed(() -> fuelEntryRepository.findByVehicleUserIdAndVehicleIdOrderByDateDesc(userId, vehicleId));
+        assertIndexed(() -> fuelEntryRepository.findByVehicleUserIdAndVehicleIdOrderByDateAsc(userId, vehicleId));
+        assertIndexed(() -> fuelEntryRepository.findByVehicleUserIdAndVehicleIdAndDateBetweenOrderByDateDesc(userId, vehicleId, from, to));
+        assertIndexed(() -> fuelEntryRepository.findByVehicleUserIdAndDateBetween(userId, from, to));
+    }
+
+    @Test
+    void queryMethods_ShouldUseIndexes_WhenCalledWithAndWithoutOptionalFilters() throws Exception {
+        LocalDate from = START.plusDays(30);
+        LocalDate to = START.plusDays(90);
+        assertIndexed(() -> fuelEntryRepository.findVehicleTotals(userId, null, null, null));
+        assertIndexed(() -> fuelEntryRepository.findVehicleTotals(userId, vehicleId, from, to));
+        assertIndexed(() -> fuelEntryRepository.findChartPoints(userId, null, null, null));
+        assertIndexed(() -> fuelEntryRepository.findChartPoints(userId, vehicleId, from, to));
+        assertIndexed(() -> fuelEntryRepository.findSeriesPoints(vehicleId));
+        assertIndexed(() -> fuelEntryRepository.findOdometerBefore(vehicleId, from));
+        assertIndexed(() -> fuelEntryRepository.findOdometerOnOrBefore(vehicleId, from, null));
+        assertIndexed(() -> fuelEntryRepository.findOdometerAfter(vehicleId, from, 1L));
+        assertIndexed(() -> fuelEntryRepository.findPerFill(userId, null, null, null, PageRequest.of(0, 25)));
+        assertIndexed(() -> fuelEntryRepository.findPerFill(userId, vehicleId, from, to, Pageable.unpaged()));
+    }
+
+    @Test
+    void specificationFilters_ShouldUseIndexes_ForEveryFilterCombination() throws Exception {
+        LocalDate from = START.plusDays(30);
+        LocalDate to = START.plusDays(90);
+        List<Specification<FuelEntry>> specs = List.of(
+                FuelEntrySpecification.filter(null, null, null, null, null, null, userId),
+                FuelEntrySpecification.filter(vehicleId, null, null, null, null, null, userId),
+                FuelEntrySpecification.filter(null, "Shell", null, null, null, null, userId),
+                FuelEntrySpecification.filter(null, null, "98", null, null, null, userId),
+                FuelEntrySpecification.filter(null, "BP", "Diesel", null, null, null, userId),
+                FuelEntrySpecification.filter(null, null, null, "Station 3", null, null, userId),
+                FuelEntrySpecification.filter(null, null, null, null, from, to, userId),
+                FuelEntrySpecification.filter(vehicleId, "Aral", "95", "Station 1", from, to, userId)
+        );
+        for (Specification<FuelEntry> spec : specs) {
+            assertIndexed(() -> fuelEntryRepository.findAll(spec, PageRequest.of(2, 25, Sort.by("date").ascending())));
+            assertIndexed(() -> fuelEntryRepository.count(spec));
+            Specification<FuelEntry> seek = spec.and(FuelEntrySpecification.after(new FuelEntryCursor(from, 1L)));
+            assertIndexed(() -> fuelEntryRepository.findBy(seek, query -> query.sortBy(Sort.by("date", "id")).limit(26).all()));
+        }
+    }
+
+    private void assertIndexed(Runnable repositoryCall) throws Exception {
+        CapturingDataSource.STATEMENTS.clear();
+        repositoryCall.run();
+        List<CapturedStatement> statements = new ArrayList<>(CapturingDataSource.STATEMENTS);
+        assertFalse(statements.isEmpty(), "No SQL was captured");
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            assertFalse(plan.contains("tableScan"), () -> "Full table scan in plan:\n" + plan + "\nfor SQL:\n" + statement.sql()
+                    + "\nwith parameters " + statement.parameters());
+        }
+    }
+
+    private String explain(CapturedStatement captured) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + captured.sql())) {
+            int parameters = (int) captured.sql().chars().filter(c -> c == '?').count();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, captured.parameters().get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+
+    private record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // Records every select prepared through it together with the values bound to its parameters
+    static class CapturingDataSource extends DelegatingDataSource {
+        static final List<CapturedStatement> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        CapturingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (!method.getName().equals("prepareStatement") || !((String) args[0]).trim().toLowerCase().startsWith("select"))
+                    return result;
+                CapturedStatement captured = new CapturedStatement((String) args[0], new HashMap<>());
+                STATEMENTS.add(captured);
+                return proxy(PreparedStatement.class, (statementProxy, setter, values) -> {
+                    if (setter.getName().startsWith("set") && values != null && values.length >= 2 && values[0] instanceof Integer index)
+                        captured.parameters().put(index, setter.getName().equals("setNull") ? null : values[1]);
+                    return invoke(result, setter, values);
+                });
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return type.cast(Proxy.newProxyInstance(FuelEntryQueryPlanTest.class.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.team.codejam.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChartDownsamplerTest {
+
+    @Test
+    void lttb_ShouldKeepEndsAndPeak_WhenSeriesIsLonger() {
+        // Given: a flat line with one peak
+        double[] values = new double[1000];
+        Arrays.fill(values, 1.5);
+        values[437] = 9.0;
+
+        // When
+        int[] picked = ChartDownsampler.lttb(values.length, i -> i, i -> values[i], 50);
+
+        // Then
+        assertEquals(50, picked.length);
+        assertEquals(0, picked[0]);
+        assertEquals(999, picked[49]);
+        assertTrue(Arrays.stream(picked).anyMatch(i -> i == 437));
+        assertAscending(picked);
+    }
+
+    @Test
+    void minMax_ShouldKeepEveryExtreme_WhenBucketsHoldSpikes() {
+        // Given: a sawtooth with a dip and a spike inside the same bucket
+        double[] values = new double[500];
+        for (int i = 0; i < values.length; i++) values[i] = 7 + (i % 10) * 0.1;
+        values[120] = 2.0;
+        values[125] = 25.0;
+
+        // When
+        int[] picked = ChartDownsampler.minMax(values.length, i -> values[i], 20);
+
+        // Then
+        assertTrue(picked.length <= 20);
+        assertEquals(0, picked[0]);
+        assertEquals(499, picked[picked.length - 1]);
+        assertTrue(Arrays.stream(picked).anyMatch(i -> i == 120));
+        assertTrue(Arrays.stream(picked).anyMatch(i -> i == 125));
+        assertAscending(picked);
+    }
+
+    @Test
+    void lttb_ShouldKeepAllPoints_WhenSeriesFits() {
+        // When
+        int[] picked = ChartDownsampler.lttb(3, i -> i, i -> i, 10);
+
+        // Then
+        assertArrayEquals(new int[]{0, 1, 2}, picked);
+    }
+
+    @Test
+    void checkMaxPoints_ShouldReject_WhenCapIsTooSmall() {
+        assertThrows(IllegalArgumentException.class, () -> ChartDownsampler.checkMaxPoints(3));
+    }
+
+    @Test
+    void roundMaxPoints_ShouldShareCaps_WhenCallersPickNearbyValues() {
+        // When / Then: four steps per power of two, never above the requested cap
+        assertEquals(256, ChartDownsampler.roundMaxPoints(300));
+        assertEquals(256, ChartDownsampler.roundMaxPoints(319));
+        assertEquals(320, ChartDownsampler.roundMaxPoints(320));
+        assertEquals(448, ChartDownsampler.roundMaxPoints(500));
+        assertEquals(7, ChartDownsampler.roundMaxPoints(7));
+        assertNull(ChartDownsampler.roundMaxPoints(null));
+    }
+
+    private static void assertAscending(int[] indices) {
+        for (int i = 1; i < indices.length; i++) {
+            assertTrue(indices[i - 1] < indices[i], "Indices out of order at " + i);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.team.codejam.service;
+
+import com.team.codejam.cache.VehicleSeries;
+import com.team.codejam.dto.ChartPointDto;
+import com.team.codejam.dto.ChartSeriesDto;
+import com.team.codejam.dto.FuelEntryPointDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardScanTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void merge_ShouldNotMeasureDistanceAcrossVehicles_WhenFillsInterleave() {
+        // Given
+        VehicleSeries car = series(1L, new int[][]{{0, 1000}, {10, 1500}, {20, 2100}});
+        VehicleSeries van = series(2L, new int[][]{{5, 80000}, {15, 80400}});
+
+        // When
+        DashboardScan merged = DashboardScan.merge(List.of(DashboardScan.of(car, null, null), DashboardScan.of(van, null, null)));
+
+        // Then
+        FuelMetrics total = merged.getTotal();
+        assertEquals(5, total.getFillUpCount());
+        assertEquals(1100 + 400, total.getTotalDistance());
+        assertEquals(List.of("2024-03-01", "2024-03-06", "2024-03-11", "2024-03-16", "2024-03-21"),
+                merged.getCostPerLiterData().stream().map(ChartPointDto::getDate).toList());
+        assertEquals(List.of(8.0, 10.0, 40.0 / 600 * 100),
+                merged.getConsumptionData().stream().map(ChartPointDto::getValue).toList());
+    }
+
+    @Test
+    void of_ShouldOnlyScanRange_WhenBoundsAreGiven() {
+        // Given
+        VehicleSeries car = series(1L, new int[][]{{0, 1000}, {10, 1500}, {20, 2100}, {30, 2500}});
+
+        // When
+        DashboardScan scan = DashboardScan.of(car, DAY.plusDays(10), DAY.plusDays(20));
+
+        // Then
+        assertEquals(2, scan.getTotal().getFillUpCount());
+        assertEquals(600, scan.getTotal().getTotalDistance());
+        assertEquals(1, scan.getConsumptionData().size());
+    }
+
+    @Test
+    void merge_ShouldBeEmpty_WhenThereAreNoVehicles() {
+        // When
+        DashboardScan merged = DashboardScan.merge(List.of());
+
+        // Then
+        assertTrue(merged.isEmpty());
+        assertEquals(0, merged.getTotal().getFillUpCount());
+    }
+
+    @Test
+    void getConsumptionSeries_ShouldMatchChartPoints_WhenSomeHaveNoValue() {
+        // Given: the third fill was logged without moving, so its consumption has no value
+        VehicleSeries car = series(1L, new int[][]{{0, 1000}, {10, 1500}, {20, 1500}, {30, 2000}});
+        DashboardScan scan = DashboardScan.of(car, null, null);
+
+        // When
+        ChartSeriesDto consumption = scan.getConsumptionSeries();
+        ChartSeriesDto costPerLiter = scan.getCostPerLiterSeries();
+
+        // Then
+        List<ChartPointDto> points = scan.getConsumptionData().stream().filter(point -> point.getValue() != null).toList();
+        assertEquals(3, scan.getConsumptionData().size());
+        assertArrayEquals(points.stream().mapToInt(point -> (int) LocalDate.parse(point.getDate()).toEpochDay()).toArray(),
+                consumption.getEpochDays());
+        assertArrayEquals(points.stream().mapToDouble(ChartPointDto::getValue).toArray(), consumption.getValues());
+        assertEquals(4, costPerLiter.getEpochDays().length);
+        assertEquals(DAY.plusDays(30).toEpochDay(), costPerLiter.getEpochDays()[3]);
+    }
+
+    // Fills of {day offset, odometer}, 40 liters at 70 each
+    private static VehicleSeries series(long vehicleId, int[][] fills) {
+        List<FuelEntryPointDto> points = new ArrayList<>();
+        for (int[] fill : fills) {
+            points.add(new FuelEntryPointDto(vehicleId, DAY.plusDays(fill[0]), fill[1], 40.0, 70.0, "Shell", "95", "Station"));
+        }
+        return VehicleSeries.of(vehicleId, 9L, 0L, points);
+    }
+}
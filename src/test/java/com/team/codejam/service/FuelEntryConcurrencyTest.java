@@ -0,0 +1,147 @@
+package com.team.codejam.service;
+
+import com.team.codejam.entity.FuelEntry;
+import com.team.codejam.entity.User;
+import com.team.codejam.entity.Vehicle;
+import com.team.codejam.repository.UserRepository;
+import com.team.codejam.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races many writers on the same vehicles and checks the invariants the odometer validation and the
+ * rollups rely on. Without per-vehicle locking, writers validate against histories that miss each
+ * other's uncommitted fills and the odometer order breaks.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FuelEntryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 150;
+    private static final int DAYS = 90;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private FuelEntryService fuelEntryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from fuel_daily_rollups");
+        jdbcTemplate.update("delete from fuel_monthly_rollups");
+        jdbcTemplate.update("delete from fuel_entries");
+        jdbcTemplate.update("delete from vehicles");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void addFuelEntry_ShouldKeepOdometersIncreasing_WhenWritersRace() throws Exception {
+        // Given: two vehicles, each written by half of the threads
+        List<Vehicle> vehicles = List.of(vehicle("race-a@example.com"), vehicle("race-b@example.com"));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Vehicle vehicle = vehicles.get(t % vehicles.size());
+            SplittableRandom random = new SplittableRandom(t);
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    // Odometers follow the date only loosely, so racing writers often pick conflicting pairs
+                    int day = random.nextInt(DAYS);
+                    try {
+                        fuelEntryService.addFuelEntry(fill(vehicle, day, 1_000 + day * 100 + random.nextInt(-150, 151)));
+                        accepted.incrementAndGet();
+                    } catch (IllegalArgumentException rejected) {
+                        // Did not fit the history as it was at the time
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // When
+        start.countDown();
+        try {
+            for (Future<?> writer : writers) writer.get(2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertTrue(accepted.get() > DAYS, "Only " + accepted.get() + " fills were accepted");
+        assertEquals(accepted.get(), jdbcTemplate.queryForObject("select count(*) from fuel_entries", Integer.class));
+        for (Vehicle vehicle : vehicles) {
+            List<Integer> odometers = jdbcTemplate.queryForList(
+                    "select odometer from fuel_entries where vehicle_id = ? order by date, odometer", Integer.class, vehicle.getId());
+            for (int i = 1; i < odometers.size(); i++) {
+                assertTrue(odometers.get(i - 1) < odometers.get(i), "Odometer goes back at fill " + i + " of vehicle " + vehicle.getId());
+            }
+            int travelled = odometers.getLast() - odometers.getFirst();
+            assertEquals(odometers.size(), rollupSum("fuel_daily_rollups", "fill_count", vehicle.getId()));
+            assertEquals(odometers.size(), rollupSum("fuel_monthly_rollups", "fill_count", vehicle.getId()));
+            assertEquals(travelled, rollupSpan("fuel_daily_rollups", vehicle.getId()));
+            assertEquals(travelled, rollupSpan("fuel_monthly_rollups", vehicle.getId()));
+        }
+    }
+
+    private int rollupSum(String table, String column, Long vehicleId) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(" + column + "), 0) from " + table + " where vehicle_id = ?",
+                Integer.class, vehicleId);
+    }
+
+    // Distance between the vehicle's first and last fill as the statistics read it from the buckets
+    private int rollupSpan(String table, Long vehicleId) {
+        return jdbcTemplate.queryForObject("select max(max_odometer) - min(min_odometer) from " + table + " where vehicle_id = ?",
+                Integer.class, vehicleId);
+    }
+
+    private static FuelEntry fill(Vehicle vehicle, int day, int odometer) {
+        FuelEntry entry = new FuelEntry();
+        entry.setVehicle(vehicle);
+        entry.setUser(vehicle.getUser());
+        entry.setDate(FIRST_DAY.plusDays(day));
+        entry.setOdometer(odometer);
+        entry.setStationName("Race");
+        entry.setLiters(40.0);
+        entry.setTotalAmount(70.0);
+        return entry;
+    }
+
+    private Vehicle vehicle(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName("Car");
+        vehicle.setUser(user);
+        return vehicleRepository.save(vehicle);
+    }
+}
@@ -0,0 +1,93 @@
+package com.team.codejam.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuelMetricsAccumulatorTest {
+
+    @Test
+    void add_ShouldTrackDistancePerVehicle_WhenVehiclesAreInterleaved() {
+        // Given
+        FuelMetricsAccumulator accumulator = new FuelMetricsAccumulator();
+
+        // When
+        int firstCar1 = accumulator.add(1L, 100, 1000, 40, 80);
+        int firstCar2 = accumulator.add(2L, 101, 50000, 30, 60);
+        int secondCar1 = accumulator.add(1L, 110, 1500, 35, 70);
+        int secondCar2 = accumulator.add(2L, 111, 50300, 20, 40);
+
+        // Then
+        assertEquals(FuelMetrics.NO_DISTANCE, firstCar1);
+        assertEquals(FuelMetrics.NO_DISTANCE, firstCar2);
+        assertEquals(500, secondCar1);
+        assertEquals(300, secondCar2);
+        FuelMetrics total = accumulator.getTotal();
+        assertEquals(4, total.getFillUpCount());
+        assertEquals(800, total.getTotalDistance());
+        assertEquals(125, total.getTotalLiters(), 1e-9);
+        assertEquals(250, total.getTotalSpend(), 1e-9);
+        assertEquals(2.0, total.getAvgCostPerLiter(), 1e-9);
+        assertEquals(800.0 / 11, total.getAvgDistancePerDay(), 1e-9);
+    }
+
+    @Test
+    void merge_ShouldMatchSequentialPass_WhenDateRangesAreSplit() {
+        // Given
+        FuelMetricsAccumulator sequential = new FuelMetricsAccumulator();
+        FuelMetricsAccumulator early = new FuelMetricsAccumulator();
+        FuelMetricsAccumulator late = new FuelMetricsAccumulator();
+        int[][] fills = {{1, 1000}, {5, 1400}, {9, 1900}, {14, 2300}};
+        for (int i = 0; i < fills.length; i++) {
+            sequential.add(7L, fills[i][0], fills[i][1], 40, 70);
+            (i < 2 ? early : late).add(7L, fills[i][0], fills[i][1], 40, 70);
+        }
+
+        // When
+        FuelMetrics merged = early.merge(late).getVehicle(7L);
+
+        // Then
+        FuelMetrics expected = sequential.getVehicle(7L);
+        assertEquals(expected.getFillUpCount(), merged.getFillUpCount());
+        assertEquals(expected.getTotalDistance(), merged.getTotalDistance());
+        assertEquals(expected.getAvgPerFillConsumption(), merged.getAvgPerFillConsumption(), 1e-9);
+        assertEquals(expected.getConsumptionPer100km(), merged.getConsumptionPer100km(), 1e-9);
+        assertEquals(expected.getAvgDistancePerDay(), merged.getAvgDistancePerDay(), 1e-9);
+    }
+
+    @Test
+    void merge_ShouldNotShareMetrics_WhenVehicleIsOnlyInLaterAccumulator() {
+        // Given
+        FuelMetricsAccumulator target = new FuelMetricsAccumulator();
+        FuelMetricsAccumulator source = new FuelMetricsAccumulator();
+        target.add(1L, 1, 1000, 40, 70);
+        source.add(2L, 1, 5000, 40, 70);
+        source.add(2L, 5, 5400, 40, 70);
+
+        // When
+        target.merge(source);
+        source.add(2L, 9, 5900, 40, 70);
+
+        // Then
+        FuelMetrics merged = target.getVehicle(2L);
+        assertEquals(2, merged.getFillUpCount());
+        assertEquals(400, merged.getTotalDistance());
+        assertEquals(3, target.getTotal().getFillUpCount());
+    }
+
+    @Test
+    void getters_ShouldReturnNull_WhenThereIsNoDistance() {
+        // Given
+        FuelMetricsAccumulator accumulator = new FuelMetricsAccumulator();
+
+        // When
+        accumulator.add(1L, 100, 1000, 40, 80);
+
+        // Then
+        FuelMetrics total = accumulator.getTotal();
+        assertNull(total.getConsumptionPer100km());
+        assertNull(total.getAvgCostPerKm());
+        assertNull(total.getAvgPerFillConsumption());
+        assertNull(total.getAvgDistancePerDay());
+    }
+}
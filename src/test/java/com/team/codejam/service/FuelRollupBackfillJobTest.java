@@ -0,0 +1,106 @@
+package com.team.codejam.service;
+
+import com.team.codejam.entity.User;
+import com.team.codejam.entity.Vehicle;
+import com.team.codejam.repository.UserRepository;
+import com.team.codejam.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class FuelRollupBackfillJobTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private FuelRollupBackfillJob backfillJob;
+
+    @Autowired
+    private FuelRollupService fuelRollupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from fuel_daily_rollups");
+        jdbcTemplate.update("delete from fuel_monthly_rollups");
+        jdbcTemplate.update("delete from fuel_entries");
+        jdbcTemplate.update("delete from vehicles");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void run_ShouldRebuildRemainingVehicles_WhenBackfillWasInterrupted() {
+        // Given: two vehicles older than the rollup tables, and only the first one backfilled
+        Vehicle done = vehicleWithFills("backfill-done@example.com");
+        Vehicle pending = vehicleWithFills("backfill-pending@example.com");
+        jdbcTemplate.update("update vehicles set rollups_built = false");
+        fuelRollupService.backfillVehicle(done.getUser().getId(), done.getId());
+
+        // When
+        backfillJob.run(null);
+
+        // Then
+        assertEquals(3, dailyFillCount(done.getId()));
+        assertEquals(3, dailyFillCount(pending.getId()));
+        assertEquals(1_200, jdbcTemplate.queryForObject(
+                "select max(max_odometer) from fuel_monthly_rollups where vehicle_id = ?", Integer.class, pending.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from vehicles where rollups_built = false", Integer.class));
+    }
+
+    @Test
+    void run_ShouldSkipVehicle_WhenCreatedWithRollups() {
+        // Given: a vehicle saved after the rollup tables existed; its fills bypass the buckets on purpose
+        Vehicle vehicle = vehicleWithFills("backfill-new@example.com");
+
+        // When
+        backfillJob.run(null);
+
+        // Then: startup trusts the flag and does not rescan the history
+        assertEquals(0, dailyFillCount(vehicle.getId()));
+    }
+
+    private int dailyFillCount(Long vehicleId) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(fill_count), 0) from fuel_daily_rollups where vehicle_id = ?",
+                Integer.class, vehicleId);
+    }
+
+    // Three fills a week apart, 100 km each
+    private Vehicle vehicleWithFills(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName("Car");
+        vehicle.setUser(user);
+        vehicle = vehicleRepository.save(vehicle);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(new Object[]{vehicle.getId(), user.getId(), Date.valueOf(DAY.plusWeeks(i)), 1_000 + 100 * i, "Stored", 40.0, 70.0});
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into fuel_entries (vehicle_id, user_id, date, odometer, station_name, liters, total_amount)
+                values (?, ?, ?, ?, ?, ?, ?)
+                """, rows);
+        return vehicle;
+    }
+}
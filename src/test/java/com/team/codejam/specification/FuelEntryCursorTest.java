@@ -0,0 +1,32 @@
+package com.team.codejam.specification;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuelEntryCursorTest {
+
+    @Test
+    void decode_ShouldReturnSamePosition_WhenTokenWasEncoded() {
+        // Given
+        FuelEntryCursor cursor = new FuelEntryCursor(LocalDate.of(2024, 2, 29), 12345L);
+
+        // When
+        FuelEntryCursor decoded = FuelEntryCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_ShouldThrowIllegalArgument_WhenTokenIsTampered() {
+        // Given
+        String token = "bm90LWEtY3Vyc29y";
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> FuelEntryCursor.decode(token));
+        assertThrows(IllegalArgumentException.class, () -> FuelEntryCursor.decode("%%%"));
+    }
+}